@@ -1,6 +1,8 @@
 package com.liuyang.common;
 
+import com.liuyang.log.LogLimiter;
 import com.liuyang.log.Logger;
+import com.liuyang.tools.TimeUtils;
 
 import java.util.Timer;
 import java.util.TimerTask;
@@ -9,6 +11,8 @@ import java.util.TimerTask;
 // 检查周期为 1 秒， 即每一秒会检测一次是否超时。
 public final class ManagerClientMonitor {
     public final static Logger logger = Logger.getLogger(ManagerClientMonitor.class);
+    // 每个客户端每秒都会输出一次检查日志，客户端较多时限制总输出速率。
+    private final static LogLimiter CHECK_LIMITER = LogLimiter.rate(10, TimeUtils.SECOND_MILLIS);
 
     public static ManagerClientMonitor monitoring(ManagerClient client, long millis) {
         ManagerClientMonitor monitor =  new ManagerClientMonitor(client, millis);
@@ -57,7 +61,7 @@ public final class ManagerClientMonitor {
                         long curr = scheduledExecutionTime();
                         long last = getClientTime();
                         long diff = curr - last;
-                        logger.debug("Client(%s):%d, current: %d, diff: %d.", name, last, curr, diff);
+                        logger.debug(CHECK_LIMITER, "Client({}):{}, current: {}, diff: {}.", name, last, curr, diff);
                         if (diff >= timeout) {
                             logger.debug("Time out (" + diff + "), client(" + name + ") will be close.");
                             stop();
@@ -0,0 +1,35 @@
+package com.liuyang.log;
+
+/**
+ * 日志输出接口
+ * <p>
+ *     由 Logger 将日志事件交给输出端。输出端不能持有传入的事件对象，
+ *     事件对象在调用返回后会被复用。
+ * </p>
+ * <p>
+ *     输出端可以缓冲数据。{@link AsyncAppender} 在每一批事件之后（缓冲区取空时）调用一次 {@link #flush()}；
+ *     同步输出时 Logger 不调用 {@link #flush()}，由输出端自行决定写出时机，关闭时写出剩余数据。
+ * </p>
+ *
+ * @author liuyang
+ * @version 1.0.1
+ */
+public interface Appender {
+
+    /**
+     * 输出日志事件。
+     *
+     * @param event 日志事件，调用返回后不可再引用。
+     */
+    void append(LogEvent event);
+
+    /**
+     * 将缓冲中的数据写出。
+     */
+    void flush();
+
+    /**
+     * 关闭输出端，关闭前需要写出所有缓冲数据。
+     */
+    void close();
+}
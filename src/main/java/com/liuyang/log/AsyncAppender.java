@@ -0,0 +1,235 @@
+package com.liuyang.log;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 异步日志输出
+ * <p>
+ *     调用线程只把日志事件复制到预先分配的环形缓冲区中，由单一的后台线程负责格式化并写入目标输出端。
+ *     缓冲区满时按 {@link Policy} 处理。关闭时会写出缓冲区中剩余的全部事件。
+ * </p>
+ * <p>
+ *     环形缓冲区为多生产者、单消费者结构：生产者通过 CAS 申请序号，写入槽位后发布该序号；
+ *     消费者按序号顺序读取已发布的槽位，一批读取完毕后再调用一次 <code>flush</code>。
+ * </p>
+ *
+ * @author liuyang
+ * @version 1.0.1
+ */
+public class AsyncAppender implements Appender {
+
+    /**
+     * 缓冲区满时的处理策略
+     */
+    public enum Policy {
+        /** 阻塞调用线程，直到缓冲区有空闲槽位。 */
+        BLOCK,
+        /** 丢弃新事件。 */
+        DROP,
+        /** 仅丢弃 DEBUG 事件，其他级别阻塞等待。 */
+        DROP_DEBUG
+    }
+
+    /** 默认缓冲区长度 */
+    public final static int DEFAULT_CAPACITY = 8192;
+
+    // 消费者空闲时的最长休眠时间，防止唤醒信号丢失时长时间等待。
+    private final static long IDLE_PARK_NANOS = 10000000L;
+    // 生产者等待空闲槽位时的休眠时间。
+    private final static long FULL_PARK_NANOS = 50000L;
+    // 后台线程退出前将可申请的序号置为此值，之后的申请全部失败。
+    private final static long CLOSED          = Long.MAX_VALUE;
+
+    private final Appender       appender;
+    private final Policy         policy;
+    private final LogEvent[]     slots;
+    private final AtomicLongArray published;
+    private final int            mask;
+    /** 下一个可申请的序号 */
+    private final AtomicLong     claimed  = new AtomicLong(0);
+    /** 下一个待消费的序号 */
+    private final AtomicLong     consumed = new AtomicLong(0);
+    private final LongAdder      dropped  = new LongAdder();
+    private final Thread         worker;
+    private final Thread         hook;
+    private volatile boolean     running  = true;
+    private volatile boolean     waiting  = false;
+
+    /**
+     * 创建异步输出，默认缓冲区长度为 {@link #DEFAULT_CAPACITY}，缓冲区满时阻塞。
+     * @param appender 目标输出端
+     */
+    public AsyncAppender(Appender appender) {
+        this(appender, DEFAULT_CAPACITY, Policy.BLOCK);
+    }
+
+    /**
+     * 创建异步输出
+     * @param appender 目标输出端，由异步输出的后台线程独占使用。
+     * @param capacity 缓冲区长度，会向上取整为 2 的幂。
+     * @param policy   缓冲区满时的处理策略
+     */
+    public AsyncAppender(Appender appender, int capacity, Policy policy) {
+        if (appender == null || policy == null)
+            throw new NullPointerException();
+        if (capacity <= 0)
+            throw new IllegalArgumentException("Illegal capacity: " + capacity);
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity)
+            size <<= 1;
+        this.appender  = appender;
+        this.policy    = policy;
+        this.mask      = size - 1;
+        this.slots     = new LogEvent[size];
+        this.published = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            slots[i] = new LogEvent();
+            published.set(i, -1L);
+        }
+        this.worker = new Thread(this::consume, "AsyncAppender");
+        this.worker.setDaemon(true);
+        this.worker.start();
+        LogMetrics.getInstance().register(this);
+        this.hook = new Thread(this::close, "AsyncAppenderShutdownHook");
+        Runtime.getRuntime().addShutdownHook(hook);
+    }
+
+    public void append(LogEvent event) {
+        if (!running) {
+            dropped.increment();
+            LogMetrics.getInstance().dropped();
+            return;
+        }
+        long seq = claim(event.getLevel());
+        if (seq < 0) {
+            dropped.increment();
+            LogMetrics.getInstance().dropped();
+            return;
+        }
+        int index = (int) seq & mask;
+        slots[index].copyFrom(event);
+        published.set(index, seq);
+        if (waiting)
+            LockSupport.unpark(worker);
+    }
+
+    // 申请序号。返回 -1 表示缓冲区已满且事件需要丢弃。
+    private long claim(Level level) {
+        int capacity = mask + 1;
+        for (;;) {
+            long seq = claimed.get();
+            if (seq == CLOSED)
+                return -1L;
+            if (seq - consumed.get() >= capacity) {
+                if (policy == Policy.DROP || (policy == Policy.DROP_DEBUG && level == Level.DEBUG) || !running)
+                    return -1L;
+                if (waiting)
+                    LockSupport.unpark(worker);
+                LockSupport.parkNanos(this, FULL_PARK_NANOS);
+            } else if (claimed.compareAndSet(seq, seq + 1)) {
+                return seq;
+            }
+        }
+    }
+
+    // 后台线程。按序号顺序消费事件，缓冲区暂时取空时写出一次。
+    private void consume() {
+        LogMetrics metrics = LogMetrics.getInstance();
+        long next = consumed.get();
+        boolean dirty = false;
+        for (;;) {
+            if (!running && next == claimed.get()) {
+                // 关闭时封闭序号后退出。封闭前仍有生产者申请到序号时继续消费，保证申请到的事件都会写出。
+                if (claimed.compareAndSet(next, CLOSED))
+                    break;
+                continue;
+            }
+            int index = (int) next & mask;
+            if (published.get(index) == next) {
+                LogEvent event = slots[index];
+                try {
+                    long start = metrics.isLatencyEnabled() ? System.nanoTime() : 0L;
+                    appender.append(event);
+                    metrics.written(start);
+                    dirty = true;
+                } catch (Throwable t) {
+                    t.printStackTrace();
+                } finally {
+                    event.clear();
+                }
+                consumed.lazySet(++next);
+            } else {
+                if (dirty) {
+                    flushQuietly();
+                    dirty = false;
+                    continue;
+                }
+                waiting = true;
+                if (published.get(index) != next && running)
+                    LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                waiting = false;
+            }
+        }
+        flushQuietly();
+    }
+
+    private void flushQuietly() {
+        try {
+            appender.flush();
+        } catch (Throwable t) {
+            t.printStackTrace();
+        }
+    }
+
+    /**
+     * 获取缓冲区中等待写出的事件数。
+     * @return 返回事件数。
+     */
+    public int getQueueSize() {
+        long seq = claimed.get();
+        return seq == CLOSED ? 0 : (int) (seq - consumed.get());
+    }
+
+    /**
+     * 获取由于缓冲区已满或已关闭而丢弃的事件数。
+     * @return 返回事件数。
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * 由后台线程写出，此处不做处理。
+     */
+    public void flush() {
+    }
+
+    /**
+     * 关闭异步输出。等待后台线程写出缓冲区中的全部事件后关闭目标输出端。
+     */
+    public void close() {
+        synchronized (this) {
+            if (!running)
+                return;
+            running = false;
+        }
+        LockSupport.unpark(worker);
+        if (Thread.currentThread() != hook) {
+            try {
+                Runtime.getRuntime().removeShutdownHook(hook);
+            } catch (IllegalStateException e) {
+                // 虚拟机正在关闭，由钩子线程继续执行
+            }
+        }
+        try {
+            worker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        appender.close();
+        LogMetrics.getInstance().unregister(this);
+    }
+}
@@ -0,0 +1,138 @@
+package com.liuyang.log;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * 控制台输出
+ * <p>
+ *     DEBUG、INFO 输出到 System.out，WARN、ERROR 输出到 System.err。
+ *     日志行在线程复用的缓冲区中格式化后直接以字符数组写出，不创建中间字符串。
+ *     指定 {@link Layout}（如 {@link JsonLayout}）时，改为以该编码输出字节。
+ *     默认每条日志都立即写出；配合 {@link AsyncAppender} 使用时可以关闭，由后台线程在每批事件之后写出。
+ * </p>
+ *
+ * @author liuyang
+ * @version 1.0.1
+ */
+public class ConsoleAppender implements Appender {
+    private final static String LINE_SEPARATOR = System.lineSeparator();
+
+    // 使用 Layout 编码时线程复用的字节缓冲区
+    private static final ThreadLocal<ByteBuffer[]> BYTES = ThreadLocal.withInitial(() -> new ByteBuffer[1]);
+
+    private final PrintStream outStream;
+    private final PrintStream errStream;
+    private final Writer      out;
+    private final Writer      err;
+    private final Layout      layout;
+    private final boolean     immediateFlush;
+
+    public ConsoleAppender() {
+        this(System.out, System.err, null);
+    }
+
+    /**
+     * 创建控制台输出
+     * @param layout 输出编码，为 null 时使用默认文本格式。
+     */
+    public ConsoleAppender(Layout layout) {
+        this(System.out, System.err, layout);
+    }
+
+    public ConsoleAppender(PrintStream out, PrintStream err) {
+        this(out, err, null);
+    }
+
+    public ConsoleAppender(PrintStream out, PrintStream err, Layout layout) {
+        this(out, err, layout, true);
+    }
+
+    /**
+     * 创建控制台输出
+     * @param out            DEBUG、INFO 日志的输出流
+     * @param err            WARN、ERROR 日志的输出流
+     * @param layout         输出编码，为 null 时使用默认文本格式。
+     * @param immediateFlush 是否每条日志都立即写出。配合 {@link AsyncAppender} 使用时可以设为 false，由后台线程批量写出。
+     */
+    public ConsoleAppender(PrintStream out, PrintStream err, Layout layout, boolean immediateFlush) {
+        this.outStream      = out;
+        this.errStream      = err;
+        this.out            = new OutputStreamWriter(out);
+        this.err            = new OutputStreamWriter(err);
+        this.layout         = layout;
+        this.immediateFlush = immediateFlush;
+    }
+
+    public void append(LogEvent event) {
+        if (layout != null) {
+            appendBytes(event);
+            return;
+        }
+        Writer writer = event.getLevel().ordinal() >= Level.WARN.ordinal() ? err : out;
+        LineBuffer buffer = LineBuffer.get();
+        try {
+            event.formatTo(buffer.builder);
+            buffer.builder.append(LINE_SEPARATOR);
+            synchronized (writer) {
+                writer.write(buffer.chars(), 0, buffer.builder.length());
+                if (immediateFlush)
+                    writer.flush();
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        } finally {
+            buffer.release();
+        }
+    }
+
+    private void appendBytes(LogEvent event) {
+        PrintStream stream = event.getLevel().ordinal() >= Level.WARN.ordinal() ? errStream : outStream;
+        ByteBuffer[] holder = BYTES.get();
+        ByteBuffer buffer = holder[0];
+        holder[0] = null;
+        if (buffer == null)
+            buffer = ByteBuffer.allocate(1024);
+        try {
+            for (;;) {
+                try {
+                    layout.encode(event, buffer);
+                    break;
+                } catch (BufferOverflowException e) {
+                    buffer = ByteBuffer.allocate(buffer.capacity() << 1);
+                }
+            }
+            synchronized (stream) {
+                stream.write(buffer.array(), 0, buffer.position());
+                if (immediateFlush)
+                    stream.flush();
+            }
+        } finally {
+            buffer.clear();
+            holder[0] = buffer.capacity() > 65536 ? null : buffer;
+        }
+    }
+
+    public void flush() {
+        outStream.flush();
+        errStream.flush();
+        try {
+            synchronized (out) {
+                out.flush();
+            }
+            synchronized (err) {
+                err.flush();
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    public void close() {
+        flush();
+    }
+}
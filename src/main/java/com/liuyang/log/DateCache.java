@@ -0,0 +1,47 @@
+package com.liuyang.log;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ * 时间戳缓存
+ * <p>
+ *     缓存当前秒的 "yyyy-MM-dd HH:mm:ss." 前缀，同一秒内只追加毫秒数字。
+ *     每个线程持有一个实例，非线程安全。
+ * </p>
+ *
+ * @author liuyang
+ * @version 1.0.1
+ */
+final class DateCache {
+    private static final ThreadLocal<DateCache> CACHE = ThreadLocal.withInitial(DateCache::new);
+
+    private final SimpleDateFormat formatter = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.");
+    private final Date             date      = new Date();
+    private final char[]           prefix    = new char[20];
+    private long                   second    = Long.MIN_VALUE;
+
+    static DateCache get() {
+        return CACHE.get();
+    }
+
+    /**
+     * 追加时间戳
+     * @param sb     目标缓冲区
+     * @param millis 毫秒时间戳
+     */
+    void formatTo(StringBuilder sb, long millis) {
+        long current = Math.floorDiv(millis, 1000L);
+        if (current != second) {
+            date.setTime(current * 1000L);
+            String text = formatter.format(date);
+            text.getChars(0, prefix.length, prefix, 0);
+            second = current;
+        }
+        int ms = (int) Math.floorMod(millis, 1000L);
+        sb.append(prefix)
+          .append((char) ('0' + ms / 100))
+          .append((char) ('0' + ms / 10 % 10))
+          .append((char) ('0' + ms % 10));
+    }
+}
@@ -0,0 +1,126 @@
+package com.liuyang.log;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * JSON 行编码
+ * <p>
+ *     每个事件输出为一行 JSON 对象，如：
+ * </p>
+ * <pre>
+ *     {"timestamp":1561708800000,"level":"INFO","logger":"com.liuyang.Demo","thread":"main","message":"connected","client":"ftp-1"}
+ * </pre>
+ * <p>
+ *     {@link LogContext} 中的键值字段依次作为对象属性输出，数值与布尔值保持原类型，其余值输出为字符串。
+ *     所有内容直接转义并以 UTF-8 编码写入缓冲区，消息在线程复用的缓冲区中格式化，不创建中间字符串。
+ * </p>
+ *
+ * @author liuyang
+ * @version 1.0.1
+ */
+public class JsonLayout implements Layout {
+    private final static byte[] HEX = {'0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a', 'b', 'c', 'd', 'e', 'f'};
+
+    public void encode(LogEvent event, ByteBuffer buffer) {
+        putAscii(buffer, "{\"timestamp\":");
+        putLong(buffer, event.getTimeMillis());
+        putAscii(buffer, ",\"level\":\"");
+        putAscii(buffer, event.getLevel().name());
+        putAscii(buffer, "\",\"logger\":");
+        putString(buffer, event.getLoggerName());
+        putAscii(buffer, ",\"thread\":");
+        putString(buffer, event.getThreadName());
+        putAscii(buffer, ",\"message\":");
+        LineBuffer line = LineBuffer.get();
+        try {
+            event.formatMessageTo(line.builder);
+            putString(buffer, line.builder);
+            for (int i = 0; i < event.getFieldCount(); i++) {
+                buffer.put((byte) ',');
+                putString(buffer, event.getFieldKey(i));
+                buffer.put((byte) ':');
+                Object value = event.getFieldValue(i);
+                if (value == null) {
+                    putAscii(buffer, "null");
+                } else if (value instanceof Integer || value instanceof Long
+                        || value instanceof Short || value instanceof Byte) {
+                    putLong(buffer, ((Number) value).longValue());
+                } else if ((value instanceof Double || value instanceof Float)
+                        && !Double.isNaN(((Number) value).doubleValue())
+                        && !Double.isInfinite(((Number) value).doubleValue())) {
+                    line.builder.setLength(0);
+                    MessageFormatter.appendParam(line.builder, value);
+                    Utf8.encode(line.builder, buffer);
+                } else if (value instanceof Boolean) {
+                    putAscii(buffer, ((Boolean) value) ? "true" : "false");
+                } else if (value instanceof CharSequence) {
+                    putString(buffer, (CharSequence) value);
+                } else {
+                    line.builder.setLength(0);
+                    MessageFormatter.appendParam(line.builder, value);
+                    putString(buffer, line.builder);
+                }
+            }
+        } finally {
+            line.release();
+        }
+        putAscii(buffer, "}\n");
+    }
+
+    // 写入 ASCII 常量，调用者保证内容不需要转义。
+    private static void putAscii(ByteBuffer buffer, String s) {
+        int length = s.length();
+        if (buffer.remaining() < length)
+            throw new BufferOverflowException();
+        for (int i = 0; i < length; i++)
+            buffer.put((byte) s.charAt(i));
+    }
+
+    // 直接写入十进制数字，不经过 Long.toString。
+    private static void putLong(ByteBuffer buffer, long value) {
+        if (value == Long.MIN_VALUE) {
+            putAscii(buffer, "-9223372036854775808");
+            return;
+        }
+        if (value < 0) {
+            buffer.put((byte) '-');
+            value = -value;
+        }
+        long divisor = 1;
+        while (divisor <= value / 10)
+            divisor *= 10;
+        for (; divisor > 0; divisor /= 10)
+            buffer.put((byte) ('0' + value / divisor % 10));
+    }
+
+    // 写入 JSON 字符串，转义引号、反斜杠和控制字符，其余字符以 UTF-8 编码。
+    private static void putString(ByteBuffer buffer, CharSequence cs) {
+        if (cs == null) {
+            putAscii(buffer, "null");
+            return;
+        }
+        buffer.put((byte) '"');
+        int length = cs.length(), start = 0;
+        for (int i = 0; i < length; i++) {
+            char c = cs.charAt(i);
+            if (c >= 0x20 && c != '"' && c != '\\')
+                continue;
+            Utf8.encode(cs, start, i, buffer);
+            start = i + 1;
+            buffer.put((byte) '\\');
+            switch (c) {
+                case '"':  buffer.put((byte) '"');  break;
+                case '\\': buffer.put((byte) '\\'); break;
+                case '\n': buffer.put((byte) 'n');  break;
+                case '\r': buffer.put((byte) 'r');  break;
+                case '\t': buffer.put((byte) 't');  break;
+                default:
+                    buffer.put((byte) 'u').put((byte) '0').put((byte) '0')
+                          .put(HEX[c >> 4]).put(HEX[c & 0xf]);
+            }
+        }
+        Utf8.encode(cs, start, length, buffer);
+        buffer.put((byte) '"');
+    }
+}
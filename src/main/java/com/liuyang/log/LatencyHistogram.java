@@ -0,0 +1,90 @@
+package com.liuyang.log;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 耗时直方图
+ * <p>
+ *     按 2 的幂划分区间记录纳秒耗时，第 i 个区间记录 [2^(i-1), 2^i) 纳秒的次数。
+ *     每个区间使用 LongAdder 计数，多线程记录时不产生竞争。百分位数返回所在区间的上限，为近似值。
+ * </p>
+ *
+ * @author liuyang
+ * @version 1.0.1
+ */
+public final class LatencyHistogram {
+    private final static int BUCKETS = 64;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder   total   = new LongAdder();
+
+    LatencyHistogram() {
+        for (int i = 0; i < BUCKETS; i++)
+            buckets[i] = new LongAdder();
+    }
+
+    /**
+     * 记录一次耗时。
+     * @param nanos 耗时，单位：纳秒。
+     */
+    void record(long nanos) {
+        int index = nanos <= 0 ? 0 : BUCKETS - Long.numberOfLeadingZeros(nanos);
+        buckets[Math.min(index, BUCKETS - 1)].increment();
+        total.add(nanos);
+    }
+
+    public long getCount() {
+        long count = 0;
+        for (LongAdder bucket : buckets)
+            count += bucket.sum();
+        return count;
+    }
+
+    /**
+     * 获取平均耗时。
+     * @return 返回平均耗时，单位：纳秒。没有记录时返回 0。
+     */
+    public long getMean() {
+        long count = getCount();
+        return count == 0 ? 0 : total.sum() / count;
+    }
+
+    /**
+     * 获取百分位耗时。
+     * @param percent 百分位，取值：0 - 100。
+     * @return 返回所在区间的上限，单位：纳秒。没有记录时返回 0。
+     */
+    public long getPercentile(double percent) {
+        long[] counts = getBuckets();
+        long count = 0;
+        for (long c : counts)
+            count += c;
+        if (count == 0)
+            return 0;
+        long target = (long) Math.ceil(count * Math.min(Math.max(percent, 0.0), 100.0) / 100.0);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= target && counts[i] > 0)
+                return i == 0 ? 0 : (i >= 63 ? Long.MAX_VALUE : (1L << i) - 1);
+        }
+        return Long.MAX_VALUE;
+    }
+
+    /**
+     * 获取各区间的次数。
+     * @return 返回长度为 64 的数组，第 i 项为耗时在 [2^(i-1), 2^i) 纳秒之间的次数。
+     */
+    public long[] getBuckets() {
+        long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++)
+            counts[i] = buckets[i].sum();
+        return counts;
+    }
+
+    void reset() {
+        for (LongAdder bucket : buckets)
+            bucket.reset();
+        total.reset();
+    }
+}
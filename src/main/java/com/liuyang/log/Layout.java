@@ -0,0 +1,24 @@
+package com.liuyang.log;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 日志编码接口
+ * <p>
+ *     将日志事件直接编码为字节写入缓冲区，每个事件占一行。
+ * </p>
+ *
+ * @author liuyang
+ * @version 1.0.1
+ */
+public interface Layout {
+
+    /**
+     * 编码日志事件。
+     *
+     * @param event  日志事件
+     * @param buffer 目标缓冲区，从当前位置开始写入。
+     * @throws java.nio.BufferOverflowException 缓冲区剩余空间不足时抛出，调用者需要恢复缓冲区位置后重试。
+     */
+    void encode(LogEvent event, ByteBuffer buffer);
+}
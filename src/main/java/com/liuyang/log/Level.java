@@ -0,0 +1,19 @@
+package com.liuyang.log;
+
+/**
+ * 日志级别
+ * <p>
+ *     级别按严重程度由低到高排列，比较时直接使用 <code>ordinal()</code>。
+ *     {@link #OFF} 只用于配置，表示关闭所有级别的日志。
+ * </p>
+ *
+ * @author liuyang
+ * @version 1.0.1
+ */
+public enum Level {
+    DEBUG,
+    INFO,
+    WARN,
+    ERROR,
+    OFF
+}
@@ -0,0 +1,53 @@
+package com.liuyang.log;
+
+/**
+ * 线程复用的行缓冲区
+ * <p>
+ *     输出端格式化日志行时使用，避免每条日志都创建新的 StringBuilder 和字符数组。
+ *     使用完毕后需要调用 {@link #release()}，重入时（如参数的 toString 中又打印日志）返回临时缓冲区。
+ * </p>
+ *
+ * @author liuyang
+ * @version 1.0.1
+ */
+final class LineBuffer {
+    // 超过该长度的缓冲区使用后不再保留，避免个别超长日志长期占用内存。
+    private final static int MAX_RETAINED = 65536;
+
+    private static final ThreadLocal<LineBuffer> LOCAL = ThreadLocal.withInitial(LineBuffer::new);
+
+    final StringBuilder builder = new StringBuilder(256);
+    private char[]      chars   = new char[256];
+    private boolean     inUse;
+
+    static LineBuffer get() {
+        LineBuffer buffer = LOCAL.get();
+        if (buffer.inUse)
+            buffer = new LineBuffer();
+        buffer.inUse = true;
+        buffer.builder.setLength(0);
+        return buffer;
+    }
+
+    /**
+     * 将缓冲区内容复制到复用的字符数组中。
+     * @return 返回字符数组，有效长度为 <code>builder.length()</code>。
+     */
+    char[] chars() {
+        int length = builder.length();
+        if (chars.length < length)
+            chars = new char[Math.max(length, chars.length << 1)];
+        builder.getChars(0, length, chars, 0);
+        return chars;
+    }
+
+    void release() {
+        if (builder.capacity() > MAX_RETAINED) {
+            builder.setLength(0);
+            builder.trimToSize();
+        }
+        if (chars.length > MAX_RETAINED)
+            chars = new char[256];
+        inUse = false;
+    }
+}
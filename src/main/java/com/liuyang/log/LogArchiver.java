@@ -0,0 +1,278 @@
+package com.liuyang.log;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 日志归档
+ * <p>
+ *     在低优先级的后台线程中压缩 {@link RollingFileAppender} 滚动出的文件，并按保留策略删除旧文件。
+ *     压缩时按指定速率限制读取，避免与正在写日志的输出端争抢磁盘 I/O。
+ * </p>
+ * <p>
+ *     归档范围为日志文件所在目录中以 "文件名." 开头的文件，当前正在写入的日志文件除外。
+ *     启动时会把上次未来得及压缩的滚动文件加入队列。
+ * </p>
+ * <pre>
+ *     RollingFileAppender appender = new RollingFileAppender("logs/app.log");
+ *     LogArchiver archiver = new LogArchiver(appender.getFile(), LogArchiver.Format.GZIP);
+ *     archiver.setRetention(10L * 1024 * 1024 * 1024, 30 * TimeUtils.DAY_MILLIS);
+ *     appender.setArchiver(archiver);
+ * </pre>
+ *
+ * @author liuyang
+ * @version 1.0.1
+ */
+public class LogArchiver {
+
+    /**
+     * 压缩格式
+     */
+    public enum Format {
+        GZIP(".gz"),
+        DEFLATE(".zz");
+
+        private final String suffix;
+
+        Format(String suffix) {
+            this.suffix = suffix;
+        }
+
+        public String getSuffix() {
+            return suffix;
+        }
+    }
+
+    private final static String TEMP_SUFFIX = ".tmp";
+    private final static int    BUFFER_SIZE = 65536;
+
+    private final File                      logFile;
+    private final Format                    format;
+    private final LinkedBlockingQueue<File> queue = new LinkedBlockingQueue<>();
+    private final Thread                    worker;
+    private volatile int                    level          = Deflater.DEFAULT_COMPRESSION;
+    /** 压缩速率上限，单位：字节/秒。小于或等于 0 表示不限制。 */
+    private volatile long                   bytesPerSecond = 8L * 1024 * 1024;
+    /** 归档文件总大小上限，小于或等于 0 表示不限制。 */
+    private volatile long                   maxTotalSize   = 0;
+    /** 归档文件保留时长，单位：毫秒。小于或等于 0 表示不限制。 */
+    private volatile long                   maxAgeMillis   = 0;
+    private volatile boolean                running        = true;
+
+    /**
+     * 创建日志归档
+     * @param logFile 正在写入的日志文件
+     * @param format  压缩格式
+     */
+    public LogArchiver(File logFile, Format format) {
+        if (logFile == null || format == null)
+            throw new NullPointerException();
+        this.logFile = logFile.getAbsoluteFile();
+        this.format  = format;
+        for (File file : listArchives()) {
+            if (!isCompressed(file))
+                queue.add(file);
+        }
+        this.worker = new Thread(this::run, "LogArchiver - " + this.logFile.getName());
+        this.worker.setDaemon(true);
+        this.worker.setPriority(Thread.MIN_PRIORITY);
+        this.worker.start();
+    }
+
+    /**
+     * 设置压缩级别。
+     * @param level 取值：0 - 9，参见 {@link Deflater}。
+     */
+    public void setLevel(int level) {
+        if ((level < 0 || level > 9) && level != Deflater.DEFAULT_COMPRESSION)
+            throw new IllegalArgumentException("Illegal compression level: " + level);
+        this.level = level;
+    }
+
+    /**
+     * 设置压缩时的读取速率上限，默认 8MB/秒。
+     * @param bytesPerSecond 单位：字节/秒。小于或等于 0 表示不限制。
+     */
+    public void setRateLimit(long bytesPerSecond) {
+        this.bytesPerSecond = bytesPerSecond;
+    }
+
+    /**
+     * 设置保留策略。每次压缩完成后执行，先删除过期文件，再从最旧的文件开始删除直到总大小不超过上限。
+     * 等待压缩的文件不计入总大小。
+     * @param maxTotalSize 归档文件总大小上限，单位：字节。小于或等于 0 表示不限制。
+     * @param maxAgeMillis 归档文件保留时长，单位：毫秒。小于或等于 0 表示不限制。
+     */
+    public void setRetention(long maxTotalSize, long maxAgeMillis) {
+        this.maxTotalSize = maxTotalSize;
+        this.maxAgeMillis = maxAgeMillis;
+        queue.add(logFile);
+    }
+
+    /**
+     * 提交滚动出的文件，由后台线程压缩。
+     * @param rolled 滚动出的文件
+     */
+    public void submit(File rolled) {
+        if (rolled != null && running)
+            queue.add(rolled);
+    }
+
+    /**
+     * 获取等待压缩的文件数。
+     * @return 返回文件数。
+     */
+    public int getPendingCount() {
+        return queue.size();
+    }
+
+    /**
+     * 停止归档。正在压缩的文件会完成压缩，队列中剩余的文件在下次启动时处理。
+     */
+    public void close() {
+        running = false;
+        worker.interrupt();
+        try {
+            worker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        while (running) {
+            File file;
+            try {
+                file = queue.poll(1, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                continue;
+            }
+            if (file == null)
+                continue;
+            // 提交日志文件本身表示只执行保留策略
+            if (!file.equals(logFile) && file.exists() && !isCompressed(file))
+                compress(file);
+            retain();
+        }
+    }
+
+    // 压缩文件。先写入临时文件，完成后再改名并删除原文件，中途失败时保留原文件。
+    private void compress(File source) {
+        File target = new File(source.getPath() + format.getSuffix());
+        File temp   = new File(target.getPath() + TEMP_SUFFIX);
+        boolean done = false;
+        try (InputStream in = new FileInputStream(source); OutputStream out = open(temp)) {
+            byte[] buff = new byte[BUFFER_SIZE];
+            long start = System.nanoTime(), total = 0;
+            int len;
+            while ((len = in.read(buff)) != -1) {
+                out.write(buff, 0, len);
+                total += len;
+                throttle(start, total);
+            }
+            done = true;
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        if (done && temp.renameTo(target)) {
+            target.setLastModified(source.lastModified());
+            if (!source.delete())
+                System.err.println("Delete archived log(" + source + ") failure.");
+        } else {
+            temp.delete();
+        }
+    }
+
+    private OutputStream open(File temp) throws IOException {
+        FileOutputStream out = new FileOutputStream(temp);
+        if (format == Format.GZIP) {
+            final int current = level;
+            return new GZIPOutputStream(out, BUFFER_SIZE) {
+                {
+                    def.setLevel(current);
+                }
+            };
+        }
+        return new DeflaterOutputStream(out, new Deflater(level), BUFFER_SIZE) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    def.end();
+                }
+            }
+        };
+    }
+
+    // 按速率上限休眠，使累计读取量不超过 已用时间 * 速率。
+    private void throttle(long start, long total) {
+        long rate = bytesPerSecond;
+        if (rate <= 0)
+            return;
+        long expected = (long) (total * 1e9 / rate);
+        long wait = expected - (System.nanoTime() - start);
+        if (wait > 0)
+            LockSupport.parkNanos(this, wait);
+    }
+
+    // 执行保留策略
+    private void retain() {
+        long maxSize = maxTotalSize, maxAge = maxAgeMillis;
+        if (maxSize <= 0 && maxAge <= 0)
+            return;
+        List<File> files = listArchives();
+        files.sort((a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+        long now = System.currentTimeMillis(), total = 0;
+        List<File> kept = new ArrayList<>();
+        for (File file : files) {
+            // 等待压缩的文件不参与清理
+            if (queue.contains(file))
+                continue;
+            if (maxAge > 0 && now - file.lastModified() > maxAge)
+                delete(file);
+            else
+                kept.add(file);
+        }
+        for (File file : kept)
+            total += file.length();
+        for (int i = 0; maxSize > 0 && total > maxSize && i < kept.size(); i++) {
+            total -= kept.get(i).length();
+            delete(kept.get(i));
+        }
+    }
+
+    private void delete(File file) {
+        queue.remove(file);
+        if (!file.delete())
+            System.err.println("Delete expired log(" + file + ") failure.");
+    }
+
+    // 列出滚动出的文件，不含正在写入的日志文件和压缩中的临时文件。
+    private List<File> listArchives() {
+        File dir = logFile.getParentFile();
+        String prefix = logFile.getName() + ".";
+        File[] files = dir == null ? null : dir.listFiles((d, name) -> name.startsWith(prefix) && !name.endsWith(TEMP_SUFFIX));
+        return files == null ? new ArrayList<>() : new ArrayList<>(Arrays.asList(files));
+    }
+
+    private static boolean isCompressed(File file) {
+        for (Format f : Format.values())
+            if (file.getName().endsWith(f.getSuffix()))
+                return true;
+        return false;
+    }
+}
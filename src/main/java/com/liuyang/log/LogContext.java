@@ -0,0 +1,97 @@
+package com.liuyang.log;
+
+/**
+ * 日志上下文
+ * <p>
+ *     保存当前线程的键值字段，如请求编号、客户端名称等。记录日志时字段会复制到日志事件中，
+ *     文本格式不输出这些字段，{@link JsonLayout} 将其作为 JSON 对象的属性输出。
+ * </p>
+ * <pre>
+ *     LogContext.put("client", name);
+ *     try {
+ *         logger.info("connected");
+ *     } finally {
+ *         LogContext.remove("client");
+ *     }
+ * </pre>
+ *
+ * @author liuyang
+ * @version 1.0.1
+ */
+public final class LogContext {
+    private static final ThreadLocal<LogContext> LOCAL = ThreadLocal.withInitial(LogContext::new);
+
+    private String[] keys   = new String[4];
+    private Object[] values = new Object[4];
+    private int      size   = 0;
+
+    private LogContext() {
+    }
+
+    /**
+     * 设置字段，已存在时替换原有值。
+     * @param key   字段名称
+     * @param value 字段值
+     */
+    public static void put(String key, Object value) {
+        if (key == null)
+            throw new NullPointerException("parameter key does not specified.");
+        LogContext context = LOCAL.get();
+        int index = context.indexOf(key);
+        if (index < 0) {
+            if (context.size == context.keys.length) {
+                int length = context.size << 1;
+                String[] keys = new String[length];
+                Object[] values = new Object[length];
+                System.arraycopy(context.keys, 0, keys, 0, context.size);
+                System.arraycopy(context.values, 0, values, 0, context.size);
+                context.keys = keys;
+                context.values = values;
+            }
+            index = context.size++;
+            context.keys[index] = key;
+        }
+        context.values[index] = value;
+    }
+
+    public static Object get(String key) {
+        LogContext context = LOCAL.get();
+        int index = context.indexOf(key);
+        return index < 0 ? null : context.values[index];
+    }
+
+    public static void remove(String key) {
+        LogContext context = LOCAL.get();
+        int index = context.indexOf(key);
+        if (index < 0)
+            return;
+        int moved = context.size - index - 1;
+        System.arraycopy(context.keys, index + 1, context.keys, index, moved);
+        System.arraycopy(context.values, index + 1, context.values, index, moved);
+        context.size--;
+        context.keys[context.size] = null;
+        context.values[context.size] = null;
+    }
+
+    public static void clear() {
+        LogContext context = LOCAL.get();
+        for (int i = 0; i < context.size; i++) {
+            context.keys[i] = null;
+            context.values[i] = null;
+        }
+        context.size = 0;
+    }
+
+    // 将当前线程的字段复制到日志事件。
+    static void copyTo(LogEvent event) {
+        LogContext context = LOCAL.get();
+        event.setFields(context.keys, context.values, context.size);
+    }
+
+    private int indexOf(String key) {
+        for (int i = 0; i < size; i++)
+            if (keys[i].equals(key))
+                return i;
+        return -1;
+    }
+}
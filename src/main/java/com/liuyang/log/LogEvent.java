@@ -0,0 +1,177 @@
+package com.liuyang.log;
+
+/**
+ * 日志事件
+ * <p>
+ *     可复用的日志事件。Logger 在调用线程中只记录参数引用，消息的格式化推迟到输出端写出时才进行。
+ *     参数和 {@link LogContext} 中的键值字段保存在事件自带的数组中，复制事件时不需要重新分配内存。
+ * </p>
+ *
+ * @author liuyang
+ * @version 1.0.1
+ */
+public final class LogEvent {
+    private final static Object[] EMPTY_PARAMS = {};
+    private final static String[] EMPTY_KEYS   = {};
+
+    private Level    level;
+    private long     timeMillis;
+    private Logger   logger;
+    private String   threadName;
+    private Object   message;
+    private String   format;
+    private Object[] params      = EMPTY_PARAMS;
+    private int      paramCount;
+    private String[] fieldKeys   = EMPTY_KEYS;
+    private Object[] fieldValues = EMPTY_PARAMS;
+    private int      fieldCount;
+
+    LogEvent() {
+    }
+
+    void set(Level level, long timeMillis, Logger logger, String threadName, Object message, String format) {
+        this.level      = level;
+        this.timeMillis = timeMillis;
+        this.logger     = logger;
+        this.threadName = threadName;
+        this.message    = message;
+        this.format     = format;
+        this.paramCount = 0;
+        this.fieldCount = 0;
+    }
+
+    void setFields(String[] keys, Object[] values, int count) {
+        if (fieldKeys.length < count) {
+            fieldKeys   = new String[Math.max(count, 4)];
+            fieldValues = new Object[fieldKeys.length];
+        }
+        if (count > 0) {
+            System.arraycopy(keys, 0, fieldKeys, 0, count);
+            System.arraycopy(values, 0, fieldValues, 0, count);
+        }
+        fieldCount = count;
+    }
+
+    void setParams(Object[] src, int count) {
+        ensureParams(count);
+        if (count > 0)
+            System.arraycopy(src, 0, params, 0, count);
+        paramCount = count;
+    }
+
+    void setParams(Object p0) {
+        ensureParams(1);
+        params[0]  = p0;
+        paramCount = 1;
+    }
+
+    void setParams(Object p0, Object p1) {
+        ensureParams(2);
+        params[0]  = p0;
+        params[1]  = p1;
+        paramCount = 2;
+    }
+
+    private void ensureParams(int count) {
+        if (params.length < count)
+            params = new Object[Math.max(count, 4)];
+    }
+
+    void copyFrom(LogEvent other) {
+        set(other.level, other.timeMillis, other.logger, other.threadName, other.message, other.format);
+        setParams(other.params, other.paramCount);
+        setFields(other.fieldKeys, other.fieldValues, other.fieldCount);
+    }
+
+    // 释放引用，避免缓冲区中长时间持有业务对象。
+    void clear() {
+        for (int i = 0; i < paramCount; i++)
+            params[i] = null;
+        for (int i = 0; i < fieldCount; i++)
+            fieldValues[i] = null;
+        set(null, 0L, null, null, null, null);
+    }
+
+    public Level getLevel() {
+        return level;
+    }
+
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+
+    /**
+     * 获取日志名称。
+     * @return 返回 Logger 的全名，通常为类的全名。
+     */
+    public String getLoggerName() {
+        return logger.getName();
+    }
+
+    public String getThreadName() {
+        return threadName;
+    }
+
+    /**
+     * 获取键值字段数。
+     * @return 返回记录日志时 {@link LogContext} 中的字段数。
+     */
+    public int getFieldCount() {
+        return fieldCount;
+    }
+
+    public String getFieldKey(int index) {
+        if (index >= fieldCount)
+            throw new IndexOutOfBoundsException("Range out of 0 - " + fieldCount + " (" + index + ")");
+        return fieldKeys[index];
+    }
+
+    public Object getFieldValue(int index) {
+        if (index >= fieldCount)
+            throw new IndexOutOfBoundsException("Range out of 0 - " + fieldCount + " (" + index + ")");
+        return fieldValues[index];
+    }
+
+    /**
+     * 将消息内容追加到缓冲区。
+     * @param sb 目标缓冲区
+     */
+    public void formatMessageTo(StringBuilder sb) {
+        if (format == null)
+            MessageFormatter.appendParam(sb, message);
+        else
+            MessageFormatter.formatTo(sb, format, params, paramCount);
+    }
+
+    /**
+     * 将日志行追加到缓冲区，不含换行符。
+     * @param sb 目标缓冲区
+     */
+    public void formatTo(StringBuilder sb) {
+        sb.append('[');
+        DateCache.get().formatTo(sb, timeMillis);
+        sb.append("] ").append(level.name()).append(' ').append(logger.getShortName()).append(' ');
+        formatMessageTo(sb);
+    }
+
+    /**
+     * 获取格式化后的消息。
+     * @return 返回消息内容。
+     */
+    public String getFormattedMessage() {
+        StringBuilder sb = new StringBuilder();
+        formatMessageTo(sb);
+        return sb.toString();
+    }
+
+    /**
+     * 格式化日志行。
+     * @return formatted by "[yyyy-MM-dd HH:mm:ss.ms] LEVEL Class message"
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(128);
+        formatTo(sb);
+        return sb.toString();
+    }
+}
@@ -0,0 +1,156 @@
+package com.liuyang.log;
+
+import java.util.List;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 日志限流器
+ * <p>
+ *     用于高频调用处的日志语句，每个调用处持有一个限流器实例：
+ * </p>
+ * <pre>
+ *     private final static LogLimiter LIMITER = LogLimiter.rate(10, TimeUtils.SECOND_MILLIS);
+ *     ...
+ *     logger.error(LIMITER, "Read from {} failure.", name);
+ * </pre>
+ * <p>
+ *     支持两种方式：按速率限制（令牌桶，允许一个周期内的突发）和按 1/N 概率抽样。
+ *     被拦截的日志只计数，下一条日志通过时先输出一行 "Suppressed N similar messages"，
+ *     长时间没有日志通过时由后台定时器定期输出该汇总。
+ * </p>
+ * <p>
+ *     速率限制使用 GCRA 算法，状态为一个 AtomicLong：拦截时只读取该值，通过时一次 CAS；
+ *     拦截计数使用 LongAdder。判断过程不加锁，日志风暴时限流器本身不会成为竞争点。
+ * </p>
+ *
+ * @author liuyang
+ * @version 1.0.1
+ */
+public final class LogLimiter {
+    /** 汇总输出周期：1 分钟 */
+    public final static long SUMMARY_PERIOD_MILLIS = 60000L;
+
+    private final static List<LogLimiter> LIMITERS = new CopyOnWriteArrayList<>();
+    private final static Timer            TIMER    = new Timer("LogLimiterSummaryTimer", true);
+
+    static {
+        TIMER.scheduleAtFixedRate(new TimerTask() {
+            public void run() {
+                for (LogLimiter limiter : LIMITERS)
+                    limiter.summarize();
+            }
+        }, SUMMARY_PERIOD_MILLIS, SUMMARY_PERIOD_MILLIS);
+    }
+
+    /**
+     * 按速率限制。
+     * @param permits      每个周期允许输出的日志数，同时也是允许的突发数。
+     * @param periodMillis 周期，单位：毫秒。
+     * @return 返回限流器。
+     */
+    public static LogLimiter rate(long permits, long periodMillis) {
+        if (permits <= 0 || periodMillis <= 0)
+            throw new IllegalArgumentException("Illegal rate: " + permits + "/" + periodMillis + "ms");
+        long interval = Math.max(1L, TimeUnit.MILLISECONDS.toNanos(periodMillis) / permits);
+        return new LogLimiter(interval, interval * permits, 0);
+    }
+
+    /**
+     * 按概率抽样，平均每 N 条输出一条。
+     * @param n 抽样间隔
+     * @return 返回限流器。
+     */
+    public static LogLimiter sample(int n) {
+        if (n <= 0)
+            throw new IllegalArgumentException("Illegal sample rate: 1/" + n);
+        return new LogLimiter(0L, 0L, n);
+    }
+
+    /** 令牌间隔，单位：纳秒。 */
+    private final long       interval;
+    /** 允许的突发时长，单位：纳秒。 */
+    private final long       tolerance;
+    private final int        sample;
+    /** 理论到达时间（GCRA），单位：纳秒。 */
+    private final AtomicLong tat        = new AtomicLong(Long.MIN_VALUE);
+    private final LongAdder  suppressed = new LongAdder();
+
+    // 首次使用时绑定的调用处信息，用于输出汇总。
+    private volatile Logger  logger;
+    private volatile Level   level;
+    private volatile String  format;
+
+    private LogLimiter(long interval, long tolerance, int sample) {
+        this.interval  = interval;
+        this.tolerance = tolerance;
+        this.sample    = sample;
+    }
+
+    /**
+     * 判断日志是否可以输出。可以输出且此前有被拦截的日志时，先输出汇总。
+     * @param logger 调用处的 Logger
+     * @param level  日志级别
+     * @param format 日志消息格式
+     * @return 返回 true 表示可以输出。
+     */
+    boolean tryAcquire(Logger logger, Level level, String format) {
+        if (this.logger == null)
+            bind(logger, level, format);
+        if (!permit()) {
+            suppressed.increment();
+            return false;
+        }
+        long count = suppressed.sumThenReset();
+        if (count > 0)
+            logger.summary(level, count, format);
+        return true;
+    }
+
+    private boolean permit() {
+        if (sample > 0)
+            return sample == 1 || ThreadLocalRandom.current().nextInt(sample) == 0;
+        long now = System.nanoTime();
+        for (;;) {
+            long current = tat.get();
+            long base = current == Long.MIN_VALUE || current - now < 0 ? now : current;
+            long next = base + interval;
+            if (next - now > tolerance)
+                return false;
+            if (tat.compareAndSet(current, next))
+                return true;
+        }
+    }
+
+    private synchronized void bind(Logger logger, Level level, String format) {
+        if (this.logger != null)
+            return;
+        this.level  = level;
+        this.format = format;
+        this.logger = logger;
+        LIMITERS.add(this);
+    }
+
+    // 由定时器调用，输出周期内被拦截的日志数。
+    private void summarize() {
+        Logger current = logger;
+        if (current == null)
+            return;
+        long count = suppressed.sumThenReset();
+        if (count > 0)
+            current.summary(level, count, format);
+    }
+
+    /**
+     * 获取当前被拦截且尚未汇总的日志数。
+     * @return 返回日志数。
+     */
+    public long getSuppressedCount() {
+        return suppressed.sum();
+    }
+}
@@ -0,0 +1,170 @@
+package com.liuyang.log;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * 日志统计
+ * <p>
+ *     统计各级别的日志数、丢弃数、异步缓冲区深度、写入字节数，以及两类耗时：
+ *     enqueue 为调用线程记录一条日志的耗时，write 为 {@link AsyncAppender} 后台线程写出一条日志的耗时。
+ *     计数均使用 LongAdder 累加，不会给日志调用增加竞争。
+ * </p>
+ * <p>
+ *     通过 {@link #getInstance()} 读取，同时以 {@link #OBJECT_NAME} 注册到平台 MBeanServer。
+ *     记录耗时需要额外调用两次 <code>System.nanoTime()</code>，可通过 {@link #setLatencyEnabled(boolean)} 关闭。
+ * </p>
+ *
+ * @author liuyang
+ * @version 1.0.1
+ */
+public final class LogMetrics implements LogMetricsMXBean {
+    /** JMX 注册名称 */
+    public final static String OBJECT_NAME = "com.liuyang.log:type=LogMetrics";
+
+    private final static LogMetrics INSTANCE = new LogMetrics();
+
+    static {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(INSTANCE, new ObjectName(OBJECT_NAME));
+        } catch (JMException | SecurityException e) {
+            e.printStackTrace();
+        }
+    }
+
+    public static LogMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    private final LongAdder[]          events         = new LongAdder[Level.values().length];
+    private final LongAdder            dropped        = new LongAdder();
+    private final LongAdder            bytes          = new LongAdder();
+    private final LatencyHistogram     enqueueLatency = new LatencyHistogram();
+    private final LatencyHistogram     writeLatency   = new LatencyHistogram();
+    private final List<AsyncAppender>  queues         = new CopyOnWriteArrayList<>();
+    private volatile boolean           latencyEnabled = true;
+
+    private LogMetrics() {
+        for (int i = 0; i < events.length; i++)
+            events[i] = new LongAdder();
+    }
+
+    //==================================================================================================================
+    // 统计记录，由日志组件内部调用
+    //==================================================================================================================
+
+    boolean isLatencyEnabled() {
+        return latencyEnabled;
+    }
+
+    void logged(Level level, long startNanos) {
+        events[level.ordinal()].increment();
+        if (startNanos != 0)
+            enqueueLatency.record(System.nanoTime() - startNanos);
+    }
+
+    void written(long startNanos) {
+        if (startNanos != 0)
+            writeLatency.record(System.nanoTime() - startNanos);
+    }
+
+    void dropped() {
+        dropped.increment();
+    }
+
+    void bytesWritten(long n) {
+        bytes.add(n);
+    }
+
+    void register(AsyncAppender appender) {
+        queues.add(appender);
+    }
+
+    void unregister(AsyncAppender appender) {
+        queues.remove(appender);
+    }
+
+    //==================================================================================================================
+    // 统计读取
+    //==================================================================================================================
+
+    /**
+     * 开启或关闭耗时统计。
+     * @param flag 取值：true 表示统计耗时。
+     */
+    public void setLatencyEnabled(boolean flag) {
+        latencyEnabled = flag;
+    }
+
+    public long getEventCount(Level level) {
+        return events[level.ordinal()].sum();
+    }
+
+    public long getDebugCount() {
+        return getEventCount(Level.DEBUG);
+    }
+
+    public long getInfoCount() {
+        return getEventCount(Level.INFO);
+    }
+
+    public long getWarnCount() {
+        return getEventCount(Level.WARN);
+    }
+
+    public long getErrorCount() {
+        return getEventCount(Level.ERROR);
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    public int getQueueDepth() {
+        int depth = 0;
+        for (AsyncAppender appender : queues)
+            depth += appender.getQueueSize();
+        return depth;
+    }
+
+    public long getBytesWritten() {
+        return bytes.sum();
+    }
+
+    public LatencyHistogram getEnqueueLatency() {
+        return enqueueLatency;
+    }
+
+    public LatencyHistogram getWriteLatency() {
+        return writeLatency;
+    }
+
+    public long getEnqueueLatencyMean() {
+        return enqueueLatency.getMean();
+    }
+
+    public long getEnqueueLatencyP99() {
+        return enqueueLatency.getPercentile(99);
+    }
+
+    public long getWriteLatencyMean() {
+        return writeLatency.getMean();
+    }
+
+    public long getWriteLatencyP99() {
+        return writeLatency.getPercentile(99);
+    }
+
+    public void reset() {
+        for (LongAdder adder : events)
+            adder.reset();
+        dropped.reset();
+        bytes.reset();
+        enqueueLatency.reset();
+        writeLatency.reset();
+    }
+}
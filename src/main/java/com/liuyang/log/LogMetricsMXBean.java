@@ -0,0 +1,52 @@
+package com.liuyang.log;
+
+/**
+ * 日志统计 JMX 接口
+ * <p>
+ *     注册名称为 {@link LogMetrics#OBJECT_NAME}，耗时单位均为纳秒。
+ * </p>
+ *
+ * @author liuyang
+ * @version 1.0.1
+ */
+public interface LogMetricsMXBean {
+
+    long getDebugCount();
+
+    long getInfoCount();
+
+    long getWarnCount();
+
+    long getErrorCount();
+
+    /**
+     * 获取由于缓冲区已满或已关闭而丢弃的事件数。
+     * @return 返回事件数。
+     */
+    long getDroppedCount();
+
+    /**
+     * 获取所有异步输出缓冲区中等待写出的事件数。
+     * @return 返回事件数。
+     */
+    int getQueueDepth();
+
+    /**
+     * 获取文件输出写入的字节数。
+     * @return 返回字节数。
+     */
+    long getBytesWritten();
+
+    long getEnqueueLatencyMean();
+
+    long getEnqueueLatencyP99();
+
+    long getWriteLatencyMean();
+
+    long getWriteLatencyP99();
+
+    /**
+     * 清零所有计数。
+     */
+    void reset();
+}
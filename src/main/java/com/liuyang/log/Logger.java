@@ -2,12 +2,15 @@ package com.liuyang.log;
 
 import java.io.IOException;
 import java.io.Writer;
-import java.text.SimpleDateFormat;
-import java.util.Date;
 
 /**
  * Logger Class
  * <li>2018/06/28 created by liuyang.</li>
+ * <li>日志事件交由 {@link Appender} 输出，可通过 {@link #setAppender(Appender)} 切换为 {@link AsyncAppender}。</li>
+ * <li>Logger 由 {@link LoggerRepository} 按名称缓存，级别可按包名层级在运行时修改。</li>
+ * <li>日志数、丢弃数、耗时等统计见 {@link LogMetrics}。</li>
+ * <li>高频调用处可以传入 {@link LogLimiter} 进行限流或抽样。</li>
+ * <li>消息支持 <code>{}</code> 占位符，参数在写出时才格式化；不含 <code>{}</code> 时仍按 <code>String.format</code> 处理。</li>
  * @author liuyang
  * @version 1.0.0
  *
@@ -20,116 +23,330 @@ public class Logger {
     public static boolean ENABLE_ERROR = true;
     public static boolean ENABLE_WARN = true;
 
-    public synchronized static Logger getLogger(Class<?> clazz) {
-        return new Logger(clazz, null);
+    private static volatile Appender appender = new ConsoleAppender();
+
+    // 调用线程复用的日志事件。输出端不会持有该事件，发生重入时临时创建新事件。
+    private static final ThreadLocal<LogEvent[]> EVENT = ThreadLocal.withInitial(() -> new LogEvent[] {new LogEvent()});
+
+    public static Logger getLogger(Class<?> clazz) {
+        return LoggerRepository.getLogger(clazz);
+    }
+
+    public static Logger getLogger(String name) {
+        return LoggerRepository.getLogger(name);
     }
 
     /**
-     * Get time of now with a formatter.
-     * @return formatted by "yyyy-MM-dd HH:mm:ss.ms"
+     * 设置全局输出端。
+     * @param newAppender 指定输出端
+     * @return 返回原输出端，由调用者决定是否关闭。
      */
-    private static String now() {
-        Date date = new Date();
-        SimpleDateFormat formatter = new SimpleDateFormat ("yyyy-MM-dd HH:mm:ss");
-        return String.format("%s.%03d", formatter.format(date), date.getTime() % 1000);
+    public static Appender setAppender(Appender newAppender) {
+        if (newAppender == null)
+            throw new NullPointerException();
+        Appender old = appender;
+        appender = newAppender;
+        return old;
+    }
+
+    public static Appender getAppender() {
+        return appender;
     }
 
-    private Class<?> clazz;
-    private String className;
+    /**
+     * 关闭全局输出端，写出所有缓冲中的日志。
+     */
+    public static void shutdown() {
+        appender.close();
+    }
+
+    private final String name;
+    private final String className;
     private Writer writer;
-    private boolean enableWriter = ENABLE_WRITER;
-    private boolean enableLogger = ENABLE_LOGGER;
+    private volatile boolean enableWriter = ENABLE_WRITER;
+    private volatile boolean enableLogger = ENABLE_LOGGER;
+    /** 生效级别 */
+    private volatile Level level = Level.DEBUG;
+    /** 最低可输出级别的序号，关闭时为 OFF。判断级别时只读取该字段。 */
+    private volatile int threshold = Level.DEBUG.ordinal();
 
     /**
      * Loger
-     * @param clazz 指定类
-     * @param writer write the log to the specified writer.
+     * @param name 日志名称，通常为类的全名。
      */
-    private Logger(Class<?> clazz, Writer writer) {
-        this.clazz = clazz;
-        this.writer = writer;
-        this.className = this.clazz.getSimpleName();
+    Logger(String name) {
+        this.name = name;
+        this.className = name.substring(Math.max(name.lastIndexOf('.'), name.lastIndexOf('$')) + 1);
     }
 
-    @Override
-    protected void finalize() {
-        clazz = null;
-        writer = null;
-        className = null;
-        enableWriter = false;
-        enableLogger = false;
+    // 由 LoggerRepository 在级别配置变化时调用。
+    synchronized void setEffectiveLevel(Level newLevel) {
+        level = newLevel;
+        threshold = enableLogger ? newLevel.ordinal() : Level.OFF.ordinal();
     }
 
-    private synchronized String createMessage(String level, Object m) {
-        String message = String.format("[%s] %s %s %s", now(), level, className,  m);
-        if (enableLogger && enableWriter && writer != null) {
-            try {
-                writer.write(message + "\n");
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
+    public final String getName() {
+        return name;
+    }
+
+    // 简短名称，用于文本格式输出。
+    final String getShortName() {
+        return className;
+    }
+
+    /**
+     * 获取生效级别。
+     * @return 返回当前生效的级别。
+     */
+    public final Level getLevel() {
+        return level;
+    }
+
+    /**
+     * 判断指定级别是否可以输出。级别未开启时只需读取一次 volatile 字段。
+     * @param target 指定级别
+     * @return 返回 true 表示可以输出。
+     */
+    public final boolean isEnabled(Level target) {
+        if (target.ordinal() < threshold)
+            return false;
+        switch (target) {
+            case DEBUG: return ENABLE_LOGGER && ENABLE_DEBUG;
+            case INFO:  return ENABLE_LOGGER && ENABLE_INFO;
+            case WARN:  return ENABLE_LOGGER && ENABLE_WARN;
+            case ERROR: return ENABLE_LOGGER && ENABLE_ERROR;
+            default:    return false;
         }
-        return message;
     }
 
-    private synchronized String createMessage(String level, String format, Object... m) {
-        String message = String.format("[%s] %s %s %s", now(), level, className, String.format(format, m));
-        if (enableLogger && enableWriter && writer != null) {
+    public final boolean isDebugEnabled() {
+        return Level.DEBUG.ordinal() >= threshold && ENABLE_LOGGER && ENABLE_DEBUG;
+    }
+
+    public final boolean isInfoEnabled() {
+        return Level.INFO.ordinal() >= threshold && ENABLE_LOGGER && ENABLE_INFO;
+    }
+
+    public final boolean isWarnEnabled() {
+        return Level.WARN.ordinal() >= threshold && ENABLE_LOGGER && ENABLE_WARN;
+    }
+
+    public final boolean isErrorEnabled() {
+        return Level.ERROR.ordinal() >= threshold && ENABLE_LOGGER && ENABLE_ERROR;
+    }
+
+    // 获取调用线程复用的事件，重入时返回临时事件。
+    private LogEvent acquire(Level level, Object m, String format) {
+        LogEvent[] holder = EVENT.get();
+        LogEvent event = holder[0];
+        holder[0] = null;
+        if (event == null)
+            event = new LogEvent();
+        event.set(level, System.currentTimeMillis(), this, Thread.currentThread().getName(), m, format);
+        LogContext.copyTo(event);
+        return event;
+    }
+
+    private void dispatch(LogEvent event) {
+        LogMetrics metrics = LogMetrics.getInstance();
+        long start = metrics.isLatencyEnabled() ? System.nanoTime() : 0L;
+        try {
+            if (enableWriter && writer != null)
+                write(event);
+            Appender current = appender;
+            current.append(event);
+        } finally {
+            metrics.logged(event.getLevel(), start);
+            event.clear();
+            EVENT.get()[0] = event;
+        }
+    }
+
+    private void log(Level level, Object m) {
+        dispatch(acquire(level, m, null));
+    }
+
+    private void log(Level level, String format, Object p0) {
+        LogEvent event = acquire(level, null, format);
+        event.setParams(p0);
+        dispatch(event);
+    }
+
+    private void log(Level level, String format, Object p0, Object p1) {
+        LogEvent event = acquire(level, null, format);
+        event.setParams(p0, p1);
+        dispatch(event);
+    }
+
+    private void log(Level level, String format, Object[] params) {
+        LogEvent event = acquire(level, null, format);
+        if (params != null)
+            event.setParams(params, params.length);
+        dispatch(event);
+    }
+
+    // 输出限流汇总，由 LogLimiter 调用。
+    final void summary(Level level, long count, String format) {
+        if (isEnabled(level))
+            log(level, "Suppressed {} similar messages: {}", count, format);
+    }
+
+    private void write(LogEvent event) {
+        synchronized (writer) {
             try {
-                writer.write(message + "\n");
+                writer.write(event.toString() + "\n");
             } catch (IOException e) {
                 e.printStackTrace();
             }
         }
-        return message;
     }
 
-    public synchronized final void enableLogger(boolean flag) {
+    public final synchronized void enableLogger(boolean flag) {
         enableLogger = flag;
+        threshold = flag ? level.ordinal() : Level.OFF.ordinal();
     }
 
-    public synchronized final void enableWriter(boolean flag) {
+    public final void enableWriter(boolean flag) {
         enableWriter = flag;
     }
 
-    public synchronized final void debug(Object m) {
-        if (ENABLE_LOGGER && ENABLE_DEBUG && enableLogger)
-            System.out.println(createMessage("DEBUG", m));
+    public final void debug(Object m) {
+        if (isDebugEnabled())
+            log(Level.DEBUG, m);
+    }
+
+    public final void debug(String format, Object p0) {
+        if (isDebugEnabled())
+            log(Level.DEBUG, format, p0);
+    }
+
+    public final void debug(String format, Object p0, Object p1) {
+        if (isDebugEnabled())
+            log(Level.DEBUG, format, p0, p1);
+    }
+
+    public final void debug(String format, Object... m) {
+        if (isDebugEnabled())
+            log(Level.DEBUG, format, m);
+    }
+
+    public final void error(Object m) {
+        if (isErrorEnabled())
+            log(Level.ERROR, m);
+    }
+
+    public final void error(String format, Object p0) {
+        if (isErrorEnabled())
+            log(Level.ERROR, format, p0);
     }
 
-    public synchronized final void debug(String format, Object... m) {
-        if (ENABLE_LOGGER && ENABLE_DEBUG && enableLogger)
-            System.out.println(createMessage("DEBUG", format, m));
+    public final void error(String format, Object p0, Object p1) {
+        if (isErrorEnabled())
+            log(Level.ERROR, format, p0, p1);
     }
 
-    public synchronized final void error(Object m) {
-        if (ENABLE_LOGGER && ENABLE_ERROR && enableLogger)
-            System.err.println(createMessage("ERROR", m));
+    public final void error(String format, Object... m) {
+        if (isErrorEnabled())
+            log(Level.ERROR, format, m);
     }
 
+    public final void info(Object m) {
+        if (isInfoEnabled())
+            log(Level.INFO, m);
+    }
 
-    public synchronized final void error(String format, Object... m) {
-        if (ENABLE_LOGGER && ENABLE_ERROR && enableLogger)
-            System.err.println(createMessage("ERROR", format, m));
+    public final void info(String format, Object p0) {
+        if (isInfoEnabled())
+            log(Level.INFO, format, p0);
     }
 
-    public synchronized final void info(Object m) {
-        if (ENABLE_LOGGER && ENABLE_INFO && enableLogger)
-            System.out.println(createMessage("INFO", m));
+    public final void info(String format, Object p0, Object p1) {
+        if (isInfoEnabled())
+            log(Level.INFO, format, p0, p1);
     }
 
     public final void info(String format, Object... m) {
-        if (ENABLE_LOGGER && ENABLE_INFO && enableLogger)
-            System.out.println(createMessage("INFO", format, m));
+        if (isInfoEnabled())
+            log(Level.INFO, format, m);
+    }
+
+    public final void warn(Object m) {
+        if (isWarnEnabled())
+            log(Level.WARN, m);
+    }
+
+    public final void warn(String format, Object p0) {
+        if (isWarnEnabled())
+            log(Level.WARN, format, p0);
+    }
+
+    public final void warn(String format, Object p0, Object p1) {
+        if (isWarnEnabled())
+            log(Level.WARN, format, p0, p1);
+    }
+
+    public final void warn(String format, Object... m) {
+        if (isWarnEnabled())
+            log(Level.WARN, format, m);
+    }
+
+    public final void debug(LogLimiter limiter, String format, Object p0) {
+        if (isDebugEnabled() && limiter.tryAcquire(this, Level.DEBUG, format))
+            log(Level.DEBUG, format, p0);
+    }
+
+    public final void debug(LogLimiter limiter, String format, Object p0, Object p1) {
+        if (isDebugEnabled() && limiter.tryAcquire(this, Level.DEBUG, format))
+            log(Level.DEBUG, format, p0, p1);
+    }
+
+    public final void debug(LogLimiter limiter, String format, Object... m) {
+        if (isDebugEnabled() && limiter.tryAcquire(this, Level.DEBUG, format))
+            log(Level.DEBUG, format, m);
+    }
+
+    public final void error(LogLimiter limiter, String format, Object p0) {
+        if (isErrorEnabled() && limiter.tryAcquire(this, Level.ERROR, format))
+            log(Level.ERROR, format, p0);
+    }
+
+    public final void error(LogLimiter limiter, String format, Object p0, Object p1) {
+        if (isErrorEnabled() && limiter.tryAcquire(this, Level.ERROR, format))
+            log(Level.ERROR, format, p0, p1);
+    }
+
+    public final void error(LogLimiter limiter, String format, Object... m) {
+        if (isErrorEnabled() && limiter.tryAcquire(this, Level.ERROR, format))
+            log(Level.ERROR, format, m);
+    }
+
+    public final void info(LogLimiter limiter, String format, Object p0) {
+        if (isInfoEnabled() && limiter.tryAcquire(this, Level.INFO, format))
+            log(Level.INFO, format, p0);
+    }
+
+    public final void info(LogLimiter limiter, String format, Object p0, Object p1) {
+        if (isInfoEnabled() && limiter.tryAcquire(this, Level.INFO, format))
+            log(Level.INFO, format, p0, p1);
+    }
+
+    public final void info(LogLimiter limiter, String format, Object... m) {
+        if (isInfoEnabled() && limiter.tryAcquire(this, Level.INFO, format))
+            log(Level.INFO, format, m);
+    }
+
+    public final void warn(LogLimiter limiter, String format, Object p0) {
+        if (isWarnEnabled() && limiter.tryAcquire(this, Level.WARN, format))
+            log(Level.WARN, format, p0);
     }
 
-    public synchronized final void warn(Object m) {
-        if (ENABLE_LOGGER && ENABLE_WARN && enableLogger)
-            System.err.println(createMessage("WARN", m));
+    public final void warn(LogLimiter limiter, String format, Object p0, Object p1) {
+        if (isWarnEnabled() && limiter.tryAcquire(this, Level.WARN, format))
+            log(Level.WARN, format, p0, p1);
     }
 
-    public synchronized final void warn(String format, Object... m) {
-        if (ENABLE_LOGGER && ENABLE_WARN && enableLogger)
-            System.err.println(createMessage("WARN", format, m));
+    public final void warn(LogLimiter limiter, String format, Object... m) {
+        if (isWarnEnabled() && limiter.tryAcquire(this, Level.WARN, format))
+            log(Level.WARN, format, m);
     }
 }
@@ -0,0 +1,118 @@
+package com.liuyang.log;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 日志实例仓库
+ * <p>
+ *     按名称缓存 Logger 实例，并管理按包名层级配置的日志级别。
+ *     例如为 "com.liuyang" 设置 WARN 后，"com.liuyang.common.ManagerClientMonitor" 只输出 WARN 及以上级别，
+ *     除非为更具体的名称另行设置级别。级别可在运行时修改，修改后立即对已创建的 Logger 生效。
+ * </p>
+ * <p>
+ *     获取已缓存的 Logger 和判断级别都不需要加锁，只有创建 Logger 与修改级别时互斥。
+ * </p>
+ *
+ * @author liuyang
+ * @version 1.0.1
+ */
+public final class LoggerRepository {
+    private final static Map<String, Logger> LOGGERS = new ConcurrentHashMap<>();
+    private final static Map<String, Level>  LEVELS  = new ConcurrentHashMap<>();
+    private final static Object              LOCK    = new Object();
+
+    private static volatile Level rootLevel = Level.DEBUG;
+
+    private LoggerRepository() {
+    }
+
+    /**
+     * 获取指定名称的 Logger，同一名称总是返回同一个实例。
+     * @param name 日志名称，通常为类的全名。
+     * @return 返回 Logger 实例。
+     */
+    public static Logger getLogger(String name) {
+        if (name == null)
+            throw new NullPointerException("parameter name does not specified.");
+        Logger logger = LOGGERS.get(name);
+        if (logger != null)
+            return logger;
+        synchronized (LOCK) {
+            logger = LOGGERS.get(name);
+            if (logger == null) {
+                logger = new Logger(name);
+                logger.setEffectiveLevel(resolve(name));
+                LOGGERS.put(name, logger);
+            }
+            return logger;
+        }
+    }
+
+    public static Logger getLogger(Class<?> clazz) {
+        return getLogger(clazz.getName());
+    }
+
+    /**
+     * 设置根级别，未单独配置级别的 Logger 使用该级别。
+     * @param level 指定级别，不能为空。
+     */
+    public static void setRootLevel(Level level) {
+        if (level == null)
+            throw new NullPointerException("parameter level does not specified.");
+        synchronized (LOCK) {
+            rootLevel = level;
+            refresh();
+        }
+    }
+
+    public static Level getRootLevel() {
+        return rootLevel;
+    }
+
+    /**
+     * 为指定名称（类名或包名）设置级别。
+     * @param name  类名或包名
+     * @param level 指定级别。为 null 时删除该名称的配置，改为继承上级配置。
+     */
+    public static void setLevel(String name, Level level) {
+        if (name == null)
+            throw new NullPointerException("parameter name does not specified.");
+        synchronized (LOCK) {
+            if (level == null)
+                LEVELS.remove(name);
+            else
+                LEVELS.put(name, level);
+            refresh();
+        }
+    }
+
+    /**
+     * 获取指定名称的生效级别。
+     * @param name 类名或包名
+     * @return 返回沿包名层级向上查找到的第一个级别，均未配置时返回根级别。
+     */
+    public static Level getLevel(String name) {
+        return resolve(name);
+    }
+
+    // 沿包名层级向上查找级别配置。
+    private static Level resolve(String name) {
+        String current = name;
+        for (;;) {
+            Level level = LEVELS.get(current);
+            if (level != null)
+                return level;
+            int index = Math.max(current.lastIndexOf('.'), current.lastIndexOf('$'));
+            if (index <= 0)
+                return rootLevel;
+            current = current.substring(0, index);
+        }
+    }
+
+    // 重新计算所有 Logger 的生效级别，需在持有 LOCK 时调用。
+    private static void refresh() {
+        for (Logger logger : LOGGERS.values())
+            logger.setEffectiveLevel(resolve(logger.getName()));
+    }
+}
@@ -0,0 +1,174 @@
+package com.liuyang.log;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 内存映射环形文件输出
+ * <p>
+ *     日志事件编码后直接复制到内存映射的环形文件中，写入不产生系统调用。
+ *     进程崩溃时已复制的数据仍由操作系统写回文件，可以使用 {@link MappedLogReader} 读取崩溃前的最近日志。
+ *     文件写满后覆盖最早的记录。
+ * </p>
+ * <p>
+ *     文件格式：64 字节文件头（魔数、版本、数据区长度、最早记录偏移、结束偏移），之后为环形数据区。
+ *     每条记录为 4 字节长度加编码后的内容，偏移量为写入的累计字节数，对数据区长度取模即为实际位置。
+ *     写入时先推进最早记录偏移，再复制内容，最后更新结束偏移，因此崩溃时最多丢失正在写入的一条记录。
+ * </p>
+ *
+ * @author liuyang
+ * @version 1.0.1
+ */
+public class MappedFileAppender implements Appender {
+    final static int MAGIC         = 0x4c594d4c;
+    final static int VERSION       = 1;
+    final static int HEADER_LENGTH = 64;
+    final static int CAPACITY_AT   = 8;
+    final static int FIRST_AT      = 16;
+    final static int END_AT        = 24;
+
+    /** 默认数据区长度：16MB */
+    public final static int DEFAULT_CAPACITY = 16777216;
+
+    private final File             file;
+    private final FileChannel      channel;
+    private final MappedByteBuffer mapped;
+    private final int              capacity;
+    private Layout                 layout  = new TextLayout();
+    private ByteBuffer             scratch = ByteBuffer.allocate(4096);
+    private long                   first;
+    private long                   end;
+    private boolean                closed;
+
+    public MappedFileAppender(String fileName) {
+        this(new File(fileName), DEFAULT_CAPACITY);
+    }
+
+    /**
+     * 创建内存映射环形文件输出。如果文件已存在且数据区长度一致，则在原有记录之后继续写入。
+     * @param file     映射文件
+     * @param capacity 数据区长度，单位：字节。
+     */
+    public MappedFileAppender(File file, int capacity) {
+        if (capacity <= 0 || capacity > Integer.MAX_VALUE - HEADER_LENGTH)
+            throw new IllegalArgumentException("Illegal capacity: " + capacity);
+        this.file     = file.getAbsoluteFile();
+        this.capacity = capacity;
+        try {
+            this.channel = FileChannel.open(this.file.toPath(), StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.mapped  = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_LENGTH + (long) capacity);
+        } catch (IOException e) {
+            throw new IllegalStateException("Map log file(" + file + ") failure.", e);
+        }
+        if (mapped.getInt(0) == MAGIC && mapped.getInt(4) == VERSION && mapped.getLong(CAPACITY_AT) == capacity
+                && mapped.getLong(FIRST_AT) <= mapped.getLong(END_AT)) {
+            first = mapped.getLong(FIRST_AT);
+            end   = mapped.getLong(END_AT);
+        } else {
+            mapped.putInt(0, MAGIC);
+            mapped.putInt(4, VERSION);
+            mapped.putLong(CAPACITY_AT, capacity);
+            mapped.putLong(FIRST_AT, 0L);
+            mapped.putLong(END_AT, 0L);
+        }
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public synchronized void setLayout(Layout layout) {
+        if (layout == null)
+            throw new NullPointerException();
+        this.layout = layout;
+    }
+
+    public synchronized void append(LogEvent event) {
+        if (closed)
+            return;
+        ByteBuffer record = encode(event);
+        // 超过数据区长度的记录截断保存
+        int length = Math.min(record.remaining(), capacity - 4);
+        long need = 4L + length;
+        while (end + need - first > capacity)
+            first += 4L + readInt(first);
+        mapped.putLong(FIRST_AT, first);
+        writeInt(end, length);
+        write(end + 4, record, length);
+        end += need;
+        mapped.putLong(END_AT, end);
+        LogMetrics.getInstance().bytesWritten(need);
+    }
+
+    private ByteBuffer encode(LogEvent event) {
+        for (;;) {
+            scratch.clear();
+            try {
+                layout.encode(event, scratch);
+                scratch.flip();
+                return scratch;
+            } catch (BufferOverflowException e) {
+                scratch = ByteBuffer.allocate(scratch.capacity() << 1);
+            }
+        }
+    }
+
+    private int position(long offset) {
+        return HEADER_LENGTH + (int) (offset % capacity);
+    }
+
+    // 读取 4 字节整数，跨越数据区末尾时分段读取。
+    private int readInt(long offset) {
+        int value = 0;
+        for (int i = 0; i < 4; i++)
+            value = (value << 8) | (mapped.get(position(offset + i)) & 0xff);
+        return value;
+    }
+
+    private void writeInt(long offset, int value) {
+        for (int i = 0; i < 4; i++)
+            mapped.put(position(offset + i), (byte) (value >>> (24 - 8 * i)));
+    }
+
+    // 复制记录内容，跨越数据区末尾时分两段复制。
+    private void write(long offset, ByteBuffer src, int length) {
+        int pos   = position(offset);
+        int tail  = Math.min(length, HEADER_LENGTH + capacity - pos);
+        ByteBuffer target = mapped.duplicate();
+        target.position(pos);
+        src.limit(src.position() + tail);
+        target.put(src);
+        if (tail < length) {
+            target.position(HEADER_LENGTH);
+            src.limit(src.position() + length - tail);
+            target.put(src);
+        }
+    }
+
+    /**
+     * 映射内存由操作系统写回，此处不做处理。
+     */
+    public void flush() {
+    }
+
+    /**
+     * 关闭输出，关闭前将映射内存强制写回磁盘。
+     */
+    public synchronized void close() {
+        if (closed)
+            return;
+        closed = true;
+        mapped.force();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
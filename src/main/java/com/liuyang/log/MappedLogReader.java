@@ -0,0 +1,82 @@
+package com.liuyang.log;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+import static com.liuyang.log.MappedFileAppender.*;
+
+/**
+ * 内存映射环形文件读取工具
+ * <p>
+ *     读取 {@link MappedFileAppender} 写入的环形文件，按写入顺序输出其中的全部记录。
+ *     用于进程崩溃后查看最近的日志：
+ * </p>
+ * <pre>
+ *     java -cp common-api.jar com.liuyang.log.MappedLogReader /path/to/crash.log
+ * </pre>
+ *
+ * @author liuyang
+ * @version 1.0.1
+ */
+public final class MappedLogReader {
+
+    private MappedLogReader() {
+    }
+
+    /**
+     * 按写入顺序读取全部记录并写入输出流。
+     * @param file 环形文件
+     * @param out  输出流
+     * @return 返回读取的记录数。
+     * @throws IOException 文件无法读取或格式不正确时抛出。
+     */
+    public static long read(File file, OutputStream out) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (mapped.limit() < HEADER_LENGTH || mapped.getInt(0) != MAGIC)
+                throw new IOException("File(" + file + ") is not a mapped log file.");
+            if (mapped.getInt(4) != VERSION)
+                throw new IOException("Unsupported mapped log version: " + mapped.getInt(4));
+            long capacity = mapped.getLong(CAPACITY_AT);
+            long first    = mapped.getLong(FIRST_AT);
+            long end      = mapped.getLong(END_AT);
+            if (capacity <= 0 || HEADER_LENGTH + capacity > mapped.limit() || first > end || end - first > capacity)
+                throw new IOException("Corrupted mapped log header.");
+            byte[] buff = new byte[4096];
+            long count = 0;
+            for (long offset = first; offset + 4 <= end; count++) {
+                int length = 0;
+                for (int i = 0; i < 4; i++)
+                    length = (length << 8) | (mapped.get(position(offset + i, capacity)) & 0xff);
+                offset += 4;
+                // 长度异常时说明记录已损坏，停止读取。
+                if (length < 0 || offset + length > end)
+                    break;
+                if (buff.length < length)
+                    buff = new byte[length];
+                for (int i = 0; i < length; i++)
+                    buff[i] = mapped.get(position(offset + i, capacity));
+                out.write(buff, 0, length);
+                offset += length;
+            }
+            out.flush();
+            return count;
+        }
+    }
+
+    private static int position(long offset, long capacity) {
+        return HEADER_LENGTH + (int) (offset % capacity);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: java " + MappedLogReader.class.getName() + " <mapped log file>");
+            System.exit(1);
+        }
+        read(new File(args[0]), System.out);
+    }
+}
@@ -0,0 +1,87 @@
+package com.liuyang.log;
+
+import java.util.Arrays;
+
+/**
+ * 日志消息格式化
+ * <p>
+ *     支持 <code>{}</code> 占位符，参数直接追加到调用者提供的缓冲区中，不产生中间字符串。
+ *     如果消息中没有 <code>{}</code> 而含有 <code>%</code>，则按原有的 <code>String.format</code> 方式处理。
+ *     使用 <code>\{}</code> 可以输出 <code>{}</code> 本身。
+ * </p>
+ *
+ * @author liuyang
+ * @version 1.0.1
+ */
+final class MessageFormatter {
+
+    private MessageFormatter() {
+    }
+
+    /**
+     * 格式化消息并追加到缓冲区。
+     * @param sb      目标缓冲区
+     * @param pattern 消息格式
+     * @param params  参数
+     * @param count   参数个数
+     */
+    static void formatTo(StringBuilder sb, String pattern, Object[] params, int count) {
+        if (pattern == null) {
+            sb.append((String) null);
+            return;
+        }
+        int mark = pattern.indexOf("{}");
+        if (mark < 0) {
+            if (count > 0 && pattern.indexOf('%') >= 0) {
+                sb.append(String.format(pattern, Arrays.copyOf(params, count)));
+            } else {
+                sb.append(pattern);
+            }
+            return;
+        }
+        int start = 0, index = 0;
+        for (; mark >= 0; mark = pattern.indexOf("{}", start)) {
+            if (mark > 0 && pattern.charAt(mark - 1) == '\\') {
+                // 转义的占位符
+                sb.append(pattern, start, mark - 1).append("{}");
+            } else {
+                sb.append(pattern, start, mark);
+                if (index < count)
+                    appendParam(sb, params[index++]);
+                else
+                    sb.append("{}");
+            }
+            start = mark + 2;
+        }
+        sb.append(pattern, start, pattern.length());
+    }
+
+    /**
+     * 追加单个参数。常用类型直接追加，避免调用 <code>toString</code>。
+     * @param sb 目标缓冲区
+     * @param o  参数
+     */
+    static void appendParam(StringBuilder sb, Object o) {
+        if (o == null) {
+            sb.append("null");
+        } else if (o instanceof CharSequence) {
+            sb.append((CharSequence) o);
+        } else if (o instanceof Integer || o instanceof Short || o instanceof Byte) {
+            sb.append(((Number) o).intValue());
+        } else if (o instanceof Long) {
+            sb.append(((Long) o).longValue());
+        } else if (o instanceof Double) {
+            sb.append(((Double) o).doubleValue());
+        } else if (o instanceof Float) {
+            sb.append(((Float) o).floatValue());
+        } else if (o instanceof Boolean) {
+            sb.append(((Boolean) o).booleanValue());
+        } else if (o instanceof Character) {
+            sb.append(((Character) o).charValue());
+        } else if (o instanceof Object[]) {
+            sb.append(Arrays.deepToString((Object[]) o));
+        } else {
+            sb.append(o);
+        }
+    }
+}
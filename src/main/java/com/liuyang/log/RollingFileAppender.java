@@ -0,0 +1,292 @@
+package com.liuyang.log;
+
+import com.liuyang.tools.TimeUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.TimeZone;
+
+/**
+ * 滚动文件输出
+ * <p>
+ *     日志事件由 {@link Layout} 直接编码到堆外缓冲区中，缓冲区满、调用 {@link #flush()} 或关闭时
+ *     通过 FileChannel 一次性写出。配合 {@link AsyncAppender} 使用时，每批事件只产生一次写操作。
+ *     直接设置在 Logger 上同步输出时，Logger 不逐条调用 {@link #flush()}，除缓冲区满以外，
+ *     距上次写出超过写出间隔（{@link #setFlushInterval(long)}）的日志也会触发写出；进程退出前需要调用 {@link #close()}。
+ * </p>
+ * <p>
+ *     文件达到指定大小或跨越指定时间周期时滚动，原文件重命名为 "文件名.yyyyMMddHHmmss"，
+ *     重名时再追加序号。落盘（fsync）方式由 {@link SyncPolicy} 指定。
+ *     设置 {@link LogArchiver} 后，滚动出的文件交由其在后台压缩和清理。
+ * </p>
+ *
+ * @author liuyang
+ * @version 1.0.1
+ */
+public class RollingFileAppender implements Appender {
+
+    /**
+     * 落盘策略
+     */
+    public enum SyncPolicy {
+        /** 不主动落盘，由操作系统决定。 */
+        NEVER,
+        /**
+         * 每批事件写出后落盘一次。只有配合 {@link AsyncAppender} 使用时才是多条日志共用一次落盘（组提交）；
+         * 同步输出时按缓冲区满或写出间隔写出，每次写出后落盘。
+         */
+        BATCH,
+        /** 写出后如果距上次落盘已超过指定间隔，则落盘一次。多批事件共用一次落盘。 */
+        INTERVAL
+    }
+
+    /** 默认缓冲区长度：256KB */
+    public final static int DEFAULT_BUFFER_SIZE = 262144;
+
+    private final File       file;
+    private final ByteBuffer buffer;
+    private Layout           layout        = new TextLayout();
+    /** 文件滚动大小，小于或等于 0 表示不按大小滚动。 */
+    private long             maxFileSize   = 0;
+    /** 文件滚动周期，单位：毫秒。小于或等于 0 表示不按时间滚动。 */
+    private long             rollInterval  = 0;
+    private SyncPolicy       syncPolicy    = SyncPolicy.NEVER;
+    private long             syncInterval  = TimeUtils.SECOND_MILLIS;
+    /** 同步输出时的写出间隔，单位：毫秒。小于或等于 0 表示只在缓冲区满、调用 flush 或关闭时写出。 */
+    private long             flushInterval = TimeUtils.SECOND_MILLIS;
+    private LogArchiver      archiver;
+
+    private FileChannel      channel;
+    private long             fileSize;
+    private long             openTime;
+    private long             nextRollTime  = Long.MAX_VALUE;
+    private long             lastSyncTime;
+    private long             lastFlushTime;
+    private boolean          unsynced;
+    private boolean          closed;
+
+    public RollingFileAppender(String fileName) {
+        this(new File(fileName), DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * 创建滚动文件输出
+     * @param file       日志文件
+     * @param bufferSize 缓冲区长度
+     */
+    public RollingFileAppender(File file, int bufferSize) {
+        if (bufferSize <= 0)
+            throw new IllegalArgumentException("Illegal buffer size: " + bufferSize);
+        this.file   = file.getAbsoluteFile();
+        this.buffer = ByteBuffer.allocateDirect(bufferSize);
+        open(System.currentTimeMillis());
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public synchronized void setLayout(Layout layout) {
+        if (layout == null)
+            throw new NullPointerException();
+        this.layout = layout;
+    }
+
+    /**
+     * 设置文件滚动大小。
+     * @param maxFileSize 单位：字节。小于或等于 0 表示不按大小滚动。
+     */
+    public synchronized void setMaxFileSize(long maxFileSize) {
+        this.maxFileSize = maxFileSize;
+    }
+
+    /**
+     * 设置文件滚动周期，周期按本地时区对齐，如 {@link TimeUtils#DAY_MILLIS} 表示每天零点滚动。
+     * @param rollInterval 单位：毫秒。小于或等于 0 表示不按时间滚动。
+     */
+    public synchronized void setRollInterval(long rollInterval) {
+        this.rollInterval = rollInterval;
+        this.nextRollTime = nextRollTime(System.currentTimeMillis());
+    }
+
+    /**
+     * 设置落盘策略
+     * @param syncPolicy   落盘策略
+     * @param syncInterval 策略为 {@link SyncPolicy#INTERVAL} 时的落盘间隔，单位：毫秒。
+     */
+    public synchronized void setSyncPolicy(SyncPolicy syncPolicy, long syncInterval) {
+        if (syncPolicy == null)
+            throw new NullPointerException();
+        this.syncPolicy   = syncPolicy;
+        this.syncInterval = syncInterval;
+    }
+
+    /**
+     * 设置写出间隔。同步输出时，日志距上次写出超过此间隔则写出缓冲区，避免日志长时间停留在缓冲区中。
+     * @param flushInterval 单位：毫秒。小于或等于 0 表示只在缓冲区满、调用 {@link #flush()} 或关闭时写出。
+     */
+    public synchronized void setFlushInterval(long flushInterval) {
+        this.flushInterval = flushInterval;
+    }
+
+    /**
+     * 设置日志归档，滚动出的文件提交给归档在后台压缩。
+     * @param archiver 日志归档，为 null 时不归档。
+     */
+    public synchronized void setArchiver(LogArchiver archiver) {
+        this.archiver = archiver;
+    }
+
+    public synchronized void append(LogEvent event) {
+        if (closed)
+            return;
+        long time = event.getTimeMillis();
+        if (time >= nextRollTime)
+            roll(time);
+        encode(event);
+        if (maxFileSize > 0 && fileSize + buffer.position() >= maxFileSize)
+            roll(time);
+        else if (flushInterval > 0 && time - lastFlushTime >= flushInterval)
+            flush();
+    }
+
+    // 编码事件。缓冲区不足时先写出，单个事件超过缓冲区长度时使用临时缓冲区。
+    private void encode(LogEvent event) {
+        int mark = buffer.position();
+        try {
+            layout.encode(event, buffer);
+            return;
+        } catch (BufferOverflowException e) {
+            buffer.position(mark);
+        }
+        drain();
+        try {
+            layout.encode(event, buffer);
+            return;
+        } catch (BufferOverflowException e) {
+            buffer.clear();
+        }
+        for (int size = buffer.capacity() << 1; size > 0; size <<= 1) {
+            ByteBuffer large = ByteBuffer.allocate(size);
+            try {
+                layout.encode(event, large);
+            } catch (BufferOverflowException e) {
+                continue;
+            }
+            large.flip();
+            write(large);
+            return;
+        }
+    }
+
+    // 将缓冲区中的数据写入文件。
+    private void drain() {
+        lastFlushTime = System.currentTimeMillis();
+        if (buffer.position() == 0)
+            return;
+        buffer.flip();
+        write(buffer);
+        buffer.clear();
+    }
+
+    private void write(ByteBuffer src) {
+        try {
+            while (src.hasRemaining()) {
+                int n = channel.write(src);
+                fileSize += n;
+                LogMetrics.getInstance().bytesWritten(n);
+            }
+            unsynced = true;
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void sync(boolean force) {
+        if (!unsynced || syncPolicy == SyncPolicy.NEVER)
+            return;
+        long now = System.currentTimeMillis();
+        if (force || syncPolicy == SyncPolicy.BATCH || now - lastSyncTime >= syncInterval) {
+            try {
+                channel.force(false);
+                unsynced     = false;
+                lastSyncTime = now;
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private void open(long time) {
+        try {
+            channel  = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+            fileSize = channel.size();
+        } catch (IOException e) {
+            throw new IllegalStateException("Open log file(" + file + ") failure.", e);
+        }
+        openTime      = time;
+        lastSyncTime  = time;
+        lastFlushTime = time;
+        nextRollTime = nextRollTime(time);
+    }
+
+    // 计算下一个滚动时间，按本地时区对齐到周期边界。
+    private long nextRollTime(long time) {
+        if (rollInterval <= 0)
+            return Long.MAX_VALUE;
+        long offset = TimeZone.getDefault().getOffset(time);
+        return ((time + offset) / rollInterval + 1) * rollInterval - offset;
+    }
+
+    /**
+     * 滚动文件。当前文件写出并关闭后重命名，再创建新文件。
+     * @param time 滚动时间
+     * @return 返回重命名后的文件，失败时返回 null。
+     */
+    private File roll(long time) {
+        drain();
+        sync(true);
+        File target = null;
+        try {
+            channel.close();
+            String name = file.getPath() + "." + TimeUtils.formatWithoutSymbol(openTime);
+            target = new File(name);
+            for (int i = 1; target.exists(); i++)
+                target = new File(name + "." + i);
+            Files.move(file.toPath(), target.toPath());
+        } catch (IOException e) {
+            e.printStackTrace();
+            target = null;
+        }
+        open(time);
+        if (target != null && archiver != null)
+            archiver.submit(target);
+        return target;
+    }
+
+    public synchronized void flush() {
+        if (closed)
+            return;
+        drain();
+        sync(false);
+    }
+
+    public synchronized void close() {
+        if (closed)
+            return;
+        drain();
+        sync(true);
+        closed = true;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
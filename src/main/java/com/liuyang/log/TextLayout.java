@@ -0,0 +1,27 @@
+package com.liuyang.log;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 文本编码
+ * <p>
+ *     输出格式与控制台一致："[yyyy-MM-dd HH:mm:ss.ms] LEVEL Class message"，以 UTF-8 编码。
+ * </p>
+ *
+ * @author liuyang
+ * @version 1.0.1
+ */
+public class TextLayout implements Layout {
+    private final static String LINE_SEPARATOR = System.lineSeparator();
+
+    public void encode(LogEvent event, ByteBuffer buffer) {
+        LineBuffer line = LineBuffer.get();
+        try {
+            event.formatTo(line.builder);
+            line.builder.append(LINE_SEPARATOR);
+            Utf8.encode(line.builder, buffer);
+        } finally {
+            line.release();
+        }
+    }
+}
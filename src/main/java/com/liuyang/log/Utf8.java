@@ -0,0 +1,68 @@
+package com.liuyang.log;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * UTF-8 编码
+ * <p>
+ *     将字符直接编码写入 ByteBuffer，不经过 String 或 CharsetEncoder。
+ * </p>
+ *
+ * @author liuyang
+ * @version 1.0.1
+ */
+final class Utf8 {
+
+    private Utf8() {
+    }
+
+    /**
+     * 编码字符序列
+     * @param cs  字符序列
+     * @param dst 目标缓冲区
+     * @throws BufferOverflowException 缓冲区剩余空间不足时抛出，缓冲区位置停留在出错处。
+     */
+    static void encode(CharSequence cs, ByteBuffer dst) {
+        encode(cs, 0, cs.length(), dst);
+    }
+
+    static void encode(CharSequence cs, int from, int to, ByteBuffer dst) {
+        int i = from;
+        // 大部分日志为 ASCII 字符，剩余空间足够时省去逐字节的边界检查。
+        int position = dst.position(), fast = Math.min(to, from + dst.remaining());
+        for (char c; i < fast && (c = cs.charAt(i)) < 0x80; i++)
+            dst.put(position++, (byte) c);
+        dst.position(position);
+        for (; i < to; i++) {
+            char c = cs.charAt(i);
+            if (c < 0x80) {
+                dst.put((byte) c);
+            } else if (c < 0x800) {
+                checkRemaining(dst, 2);
+                dst.put((byte) (0xc0 | (c >> 6)));
+                dst.put((byte) (0x80 | (c & 0x3f)));
+            } else if (Character.isHighSurrogate(c) && i + 1 < to && Character.isLowSurrogate(cs.charAt(i + 1))) {
+                checkRemaining(dst, 4);
+                int cp = Character.toCodePoint(c, cs.charAt(++i));
+                dst.put((byte) (0xf0 | (cp >> 18)));
+                dst.put((byte) (0x80 | ((cp >> 12) & 0x3f)));
+                dst.put((byte) (0x80 | ((cp >> 6) & 0x3f)));
+                dst.put((byte) (0x80 | (cp & 0x3f)));
+            } else if (Character.isSurrogate(c)) {
+                // 不成对的代理字符以 '?' 代替
+                dst.put((byte) '?');
+            } else {
+                checkRemaining(dst, 3);
+                dst.put((byte) (0xe0 | (c >> 12)));
+                dst.put((byte) (0x80 | ((c >> 6) & 0x3f)));
+                dst.put((byte) (0x80 | (c & 0x3f)));
+            }
+        }
+    }
+
+    private static void checkRemaining(ByteBuffer dst, int n) {
+        if (dst.remaining() < n)
+            throw new BufferOverflowException();
+    }
+}
@@ -0,0 +1,607 @@
+package com.liuyang.util;
+
+import java.util.AbstractQueue;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 阻塞双端队列
+ * <p>
+ *     有容量上限的双向链表队列，用于在线程间传递任务。队列为空时取出操作等待，写满时添加操作等待，
+ *     不需要在循环中休眠轮询。{@link #drainTo(Collection, int)} 一次加锁取出多个元素，
+ *     消费线程每次被唤醒后可以批量处理。
+ * </p>
+ * <p>
+ *     两端都可以添加和取出，所有操作由同一个 {@link ReentrantLock} 保护，配合“非空”、“未满”两个条件等待。
+ *     不允许 null 元素。迭代器遍历创建时的快照，支持删除。
+ * </p>
+ * @param <E>
+ *
+ * @author liuyang
+ * @version 1.0.1
+ */
+public class BlockingLinkedDeque<E> extends AbstractQueue<E> implements BlockingDeque<E> {
+    private final ReentrantLock lock     = new ReentrantLock();
+    private final Condition     notEmpty = lock.newCondition();
+    private final Condition     notFull  = lock.newCondition();
+    private final int           capacity;
+    private Node<E>             head;
+    private Node<E>             tail;
+    private int                 size;
+
+    /**
+     * 创建阻塞双端队列，容量为 {@link Integer#MAX_VALUE}。
+     */
+    public BlockingLinkedDeque() {
+        this(Integer.MAX_VALUE);
+    }
+
+    /**
+     * 创建阻塞双端队列
+     * @param capacity 容量
+     */
+    public BlockingLinkedDeque(int capacity) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("Illegal capacity: " + capacity);
+        this.capacity = capacity;
+    }
+
+    //==================================================================================================================
+    // 队列核心功能，在锁中调用
+    //==================================================================================================================
+
+    private boolean linkFirst(E element) {
+        if (size >= capacity)
+            return false;
+        Node<E> node = new Node<>(element);
+        node.next = head;
+        if (head == null)
+            tail = node;
+        else
+            head.prev = node;
+        head = node;
+        size++;
+        notEmpty.signal();
+        return true;
+    }
+
+    private boolean linkLast(E element) {
+        if (size >= capacity)
+            return false;
+        Node<E> node = new Node<>(element);
+        node.prev = tail;
+        if (tail == null)
+            head = node;
+        else
+            tail.next = node;
+        tail = node;
+        size++;
+        notEmpty.signal();
+        return true;
+    }
+
+    // 删除节点，删除后节点的元素置为 null，用于迭代器判断节点是否仍在队列中。
+    private E unlink(Node<E> node) {
+        Node<E> pred = node.prev, succ = node.next;
+        if (pred == null)
+            head = succ;
+        else
+            pred.next = succ;
+        if (succ == null)
+            tail = pred;
+        else
+            succ.prev = pred;
+        E item = node.item;
+        node.item = null;
+        node.prev = node.next = null;
+        size--;
+        notFull.signal();
+        return item;
+    }
+
+    private E unlinkFirst() {
+        return head == null ? null : unlink(head);
+    }
+
+    private E unlinkLast() {
+        return tail == null ? null : unlink(tail);
+    }
+
+    private static void checkNotNull(Object element) {
+        if (element == null)
+            throw new NullPointerException();
+    }
+
+    //==================================================================================================================
+    // 双端队列接口功能
+    //==================================================================================================================
+
+    public void addFirst(E element) {
+        if (!offerFirst(element))
+            throw new IllegalStateException("Deque full");
+    }
+
+    public void addLast(E element) {
+        if (!offerLast(element))
+            throw new IllegalStateException("Deque full");
+    }
+
+    public boolean offerFirst(E element) {
+        checkNotNull(element);
+        lock.lock();
+        try {
+            return linkFirst(element);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean offerLast(E element) {
+        checkNotNull(element);
+        lock.lock();
+        try {
+            return linkLast(element);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void putFirst(E element) throws InterruptedException {
+        checkNotNull(element);
+        lock.lockInterruptibly();
+        try {
+            while (!linkFirst(element))
+                notFull.await();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void putLast(E element) throws InterruptedException {
+        checkNotNull(element);
+        lock.lockInterruptibly();
+        try {
+            while (!linkLast(element))
+                notFull.await();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean offerFirst(E element, long timeout, TimeUnit unit) throws InterruptedException {
+        checkNotNull(element);
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (!linkFirst(element)) {
+                if (nanos <= 0L)
+                    return false;
+                nanos = notFull.awaitNanos(nanos);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean offerLast(E element, long timeout, TimeUnit unit) throws InterruptedException {
+        checkNotNull(element);
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (!linkLast(element)) {
+                if (nanos <= 0L)
+                    return false;
+                nanos = notFull.awaitNanos(nanos);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public E removeFirst() {
+        E value = pollFirst();
+        if (value == null)
+            throw new NoSuchElementException();
+        return value;
+    }
+
+    public E removeLast() {
+        E value = pollLast();
+        if (value == null)
+            throw new NoSuchElementException();
+        return value;
+    }
+
+    public E pollFirst() {
+        lock.lock();
+        try {
+            return unlinkFirst();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public E pollLast() {
+        lock.lock();
+        try {
+            return unlinkLast();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public E takeFirst() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            E value;
+            while ((value = unlinkFirst()) == null)
+                notEmpty.await();
+            return value;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public E takeLast() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            E value;
+            while ((value = unlinkLast()) == null)
+                notEmpty.await();
+            return value;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public E pollFirst(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            E value;
+            while ((value = unlinkFirst()) == null) {
+                if (nanos <= 0L)
+                    return null;
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            return value;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public E pollLast(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            E value;
+            while ((value = unlinkLast()) == null) {
+                if (nanos <= 0L)
+                    return null;
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            return value;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public E getFirst() {
+        E value = peekFirst();
+        if (value == null)
+            throw new NoSuchElementException();
+        return value;
+    }
+
+    public E getLast() {
+        E value = peekLast();
+        if (value == null)
+            throw new NoSuchElementException();
+        return value;
+    }
+
+    public E peekFirst() {
+        lock.lock();
+        try {
+            return head == null ? null : head.item;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public E peekLast() {
+        lock.lock();
+        try {
+            return tail == null ? null : tail.item;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean removeFirstOccurrence(Object o) {
+        if (o == null)
+            return false;
+        lock.lock();
+        try {
+            for (Node<E> node = head; node != null; node = node.next) {
+                if (o.equals(node.item)) {
+                    unlink(node);
+                    return true;
+                }
+            }
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean removeLastOccurrence(Object o) {
+        if (o == null)
+            return false;
+        lock.lock();
+        try {
+            for (Node<E> node = tail; node != null; node = node.prev) {
+                if (o.equals(node.item)) {
+                    unlink(node);
+                    return true;
+                }
+            }
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    //==================================================================================================================
+    // 阻塞队列接口功能，从尾部添加、从头部取出
+    //==================================================================================================================
+
+    public boolean add(E element) {
+        addLast(element);
+        return true;
+    }
+
+    public boolean offer(E element) {
+        return offerLast(element);
+    }
+
+    public void put(E element) throws InterruptedException {
+        putLast(element);
+    }
+
+    public boolean offer(E element, long timeout, TimeUnit unit) throws InterruptedException {
+        return offerLast(element, timeout, unit);
+    }
+
+    public E remove() {
+        return removeFirst();
+    }
+
+    public E poll() {
+        return pollFirst();
+    }
+
+    public E take() throws InterruptedException {
+        return takeFirst();
+    }
+
+    public E poll(long timeout, TimeUnit unit) throws InterruptedException {
+        return pollFirst(timeout, unit);
+    }
+
+    public E element() {
+        return getFirst();
+    }
+
+    public E peek() {
+        return peekFirst();
+    }
+
+    public void push(E element) {
+        addFirst(element);
+    }
+
+    public E pop() {
+        return removeFirst();
+    }
+
+    public boolean remove(Object o) {
+        return removeFirstOccurrence(o);
+    }
+
+    public int remainingCapacity() {
+        lock.lock();
+        try {
+            return capacity - size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int drainTo(Collection<? super E> collection) {
+        return drainTo(collection, Integer.MAX_VALUE);
+    }
+
+    /**
+     * 从头部取出最多 max 个元素添加到指定集合中，只加锁一次。
+     * 队列为空时立即返回，可以在 {@link #take()} 返回后调用，批量取出剩余的元素。
+     * @param collection 指定集合
+     * @param max        最多取出的元素数
+     * @return 返回取出的元素数。
+     */
+    public int drainTo(Collection<? super E> collection, int max) {
+        if (collection == null)
+            throw new NullPointerException();
+        if (collection == this)
+            throw new IllegalArgumentException();
+        if (max <= 0)
+            return 0;
+        lock.lock();
+        try {
+            int count = 0;
+            Node<E> node = head;
+            try {
+                for (; node != null && count < max; node = node.next, count++)
+                    collection.add(node.item);
+            } finally {
+                // 已添加到集合中的元素一次性从队列中删除，集合抛出异常时也不会重复取出
+                if (count > 0) {
+                    for (Node<E> x = head; x != node; ) {
+                        Node<E> next = x.next;
+                        x.item = null;
+                        x.prev = x.next = null;
+                        x = next;
+                    }
+                    head = node;
+                    if (node == null)
+                        tail = null;
+                    else
+                        node.prev = null;
+                    size -= count;
+                    notFull.signalAll();
+                }
+            }
+            return count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    //==================================================================================================================
+    // 集合接口功能
+    //==================================================================================================================
+
+    public int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean contains(Object o) {
+        if (o == null)
+            return false;
+        lock.lock();
+        try {
+            for (Node<E> node = head; node != null; node = node.next)
+                if (o.equals(node.item))
+                    return true;
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void clear() {
+        lock.lock();
+        try {
+            for (Node<E> x = head; x != null; ) {
+                Node<E> next = x.next;
+                x.item = null;
+                x.prev = x.next = null;
+                x = next;
+            }
+            head = tail = null;
+            size = 0;
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Object[] toArray() {
+        lock.lock();
+        try {
+            Object[] values = new Object[size];
+            int i = 0;
+            for (Node<E> node = head; node != null; node = node.next)
+                values[i++] = node.item;
+            return values;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Iterator<E> iterator() {
+        return new Itr(true);
+    }
+
+    public Iterator<E> descendingIterator() {
+        return new Itr(false);
+    }
+
+    //==================================================================================================================
+    // 队列内部接口实现
+    //==================================================================================================================
+
+    private final static class Node<E> {
+        E       item;
+        Node<E> prev;
+        Node<E> next;
+
+        Node(E item) {
+            this.item = item;
+        }
+    }
+
+    /**
+     * 快照迭代器，删除时仅当节点仍在队列中才删除。
+     */
+    private final class Itr implements Iterator<E> {
+        final Node<?>[] nodes;
+        final Object[]  items;
+        int             cursor  = 0;
+        int             lastRet = -1;
+
+        Itr(boolean ascending) {
+            lock.lock();
+            try {
+                nodes = new Node<?>[size];
+                items = new Object[size];
+                int i = 0;
+                for (Node<E> node = ascending ? head : tail; node != null; node = ascending ? node.next : node.prev, i++) {
+                    nodes[i] = node;
+                    items[i] = node.item;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public boolean hasNext() {
+            return cursor < items.length;
+        }
+
+        @SuppressWarnings({"unchecked"})
+        public E next() {
+            if (cursor >= items.length)
+                throw new NoSuchElementException();
+            lastRet = cursor++;
+            return (E) items[lastRet];
+        }
+
+        @SuppressWarnings({"unchecked"})
+        public void remove() {
+            if (lastRet < 0)
+                throw new IllegalStateException();
+            Node<E> node = (Node<E>) nodes[lastRet];
+            lastRet = -1;
+            lock.lock();
+            try {
+                if (node.item != null)
+                    unlink(node);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,497 @@
+package com.liuyang.util;
+
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * 无锁并发链表
+ * <p>
+ *     双端队列，两端的添加和取出都不加锁，由 CAS 完成。任何线程暂停都不会阻塞其他线程，适用于不能接受锁等待的场景。
+ * </p>
+ * <p>
+ *     实现参考 Maged M. Michael 的无锁双端队列算法：头部节点、尾部节点和状态组成不可变的锚点，
+ *     两端的操作都通过 CAS 替换锚点完成。添加节点时先替换锚点并标记为未稳定状态，再链接相邻节点并恢复为稳定状态，
+ *     其他线程遇到未稳定状态时协助完成，因此任何线程暂停都不会阻塞其他线程。
+ *     删除中间元素时只将节点的数据置为 null（逻辑删除），节点到达两端被取出时丢弃。
+ * </p>
+ * <p>
+ *     使用限制：
+ * </p>
+ * <ul>
+ *     <li>两端的每次添加、取出都要 CAS 同一个锚点并创建新的锚点对象，头部的消费者和尾部的生产者竞争同一个引用，
+ *     线程数增加时吞吐量不会随核数提高。需要多生产者、多消费者扩展性时使用
+ *     {@link java.util.concurrent.ConcurrentLinkedQueue} 或分片的队列。</li>
+ *     <li>{@link #remove(Object)} 只做逻辑删除，中间的已删除节点到达两端时才被丢弃，此前一直占用内存，
+ *     遍历（包括 {@link #size()}、{@link #contains(Object)}）都要经过这些节点。不适合频繁删除中间元素。</li>
+ * </ul>
+ * <p>
+ *     不允许 null 元素。迭代器为弱一致性，不会抛出 {@link java.util.ConcurrentModificationException}。
+ *     {@link #size()} 需要遍历链表。
+ * </p>
+ * @param <E>
+ *
+ * @author liuyang
+ * @version 1.0.1
+ */
+public class ConcurrentLinkedList<E> extends AbstractCollection<E> implements Deque<E> {
+    private final static int STABLE    = 0;
+    private final static int PUSH_HEAD = 1;
+    private final static int PUSH_TAIL = 2;
+
+    @SuppressWarnings({"rawtypes"})
+    private final static Anchor EMPTY = new Anchor<>(null, null, STABLE);
+
+    @SuppressWarnings({"rawtypes"})
+    private final static AtomicReferenceFieldUpdater<Node, Object> ITEM =
+            AtomicReferenceFieldUpdater.newUpdater(Node.class, Object.class, "item");
+    @SuppressWarnings({"rawtypes"})
+    private final static AtomicReferenceFieldUpdater<Node, Node>   PREV =
+            AtomicReferenceFieldUpdater.newUpdater(Node.class, Node.class, "prev");
+    @SuppressWarnings({"rawtypes"})
+    private final static AtomicReferenceFieldUpdater<Node, Node>   NEXT =
+            AtomicReferenceFieldUpdater.newUpdater(Node.class, Node.class, "next");
+
+    private final AtomicReference<Anchor<E>> anchor;
+
+    /**
+     * 创建无锁并发链表
+     */
+    @SuppressWarnings({"unchecked"})
+    public ConcurrentLinkedList() {
+        this.anchor = new AtomicReference<>((Anchor<E>) EMPTY);
+    }
+
+    /**
+     * 创建无锁并发链表，并按顺序添加指定集合中的元素。
+     * @param collection 指定集合
+     */
+    public ConcurrentLinkedList(Collection<? extends E> collection) {
+        this();
+        addAll(collection);
+    }
+
+    //==================================================================================================================
+    // 链表核心功能
+    //==================================================================================================================
+
+    private static void checkNotNull(Object o) {
+        if (o == null)
+            throw new NullPointerException();
+    }
+
+    // 在头部添加节点
+    private void pushHead(E element) {
+        checkNotNull(element);
+        Node<E> node = new Node<>(element);
+        for (;;) {
+            Anchor<E> a = anchor.get();
+            if (a.head == null) {
+                if (anchor.compareAndSet(a, new Anchor<>(node, node, STABLE)))
+                    return;
+            } else if (a.status == STABLE) {
+                node.next = a.head;
+                Anchor<E> b = new Anchor<>(node, a.tail, PUSH_HEAD);
+                if (anchor.compareAndSet(a, b)) {
+                    stabilizeHead(b);
+                    return;
+                }
+            } else {
+                stabilize(a);
+            }
+        }
+    }
+
+    // 在尾部添加节点
+    private void pushTail(E element) {
+        checkNotNull(element);
+        Node<E> node = new Node<>(element);
+        for (;;) {
+            Anchor<E> a = anchor.get();
+            if (a.tail == null) {
+                if (anchor.compareAndSet(a, new Anchor<>(node, node, STABLE)))
+                    return;
+            } else if (a.status == STABLE) {
+                node.prev = a.tail;
+                Anchor<E> b = new Anchor<>(a.head, node, PUSH_TAIL);
+                if (anchor.compareAndSet(a, b)) {
+                    stabilizeTail(b);
+                    return;
+                }
+            } else {
+                stabilize(a);
+            }
+        }
+    }
+
+    // 取出头部节点的数据。已逻辑删除的节点直接丢弃。
+    @SuppressWarnings({"unchecked"})
+    private E popHead() {
+        for (;;) {
+            Anchor<E> a = anchor.get();
+            Node<E> node = a.head;
+            if (node == null)
+                return null;
+            if (node == a.tail) {
+                if (!anchor.compareAndSet(a, (Anchor<E>) EMPTY))
+                    continue;
+            } else if (a.status == STABLE) {
+                Node<E> next = node.next;
+                if (!anchor.compareAndSet(a, new Anchor<>(next, a.tail, STABLE)))
+                    continue;
+                // 断开新头部节点对已取出节点的引用
+                PREV.compareAndSet(next, node, null);
+            } else {
+                stabilize(a);
+                continue;
+            }
+            E item = node.item;
+            if (item != null && ITEM.compareAndSet(node, item, null))
+                return item;
+        }
+    }
+
+    // 取出尾部节点的数据。已逻辑删除的节点直接丢弃。
+    @SuppressWarnings({"unchecked"})
+    private E popTail() {
+        for (;;) {
+            Anchor<E> a = anchor.get();
+            Node<E> node = a.tail;
+            if (node == null)
+                return null;
+            if (node == a.head) {
+                if (!anchor.compareAndSet(a, (Anchor<E>) EMPTY))
+                    continue;
+            } else if (a.status == STABLE) {
+                Node<E> prev = node.prev;
+                if (!anchor.compareAndSet(a, new Anchor<>(a.head, prev, STABLE)))
+                    continue;
+                // 断开新尾部节点对已取出节点的引用
+                NEXT.compareAndSet(prev, node, null);
+            } else {
+                stabilize(a);
+                continue;
+            }
+            E item = node.item;
+            if (item != null && ITEM.compareAndSet(node, item, null))
+                return item;
+        }
+    }
+
+    private void stabilize(Anchor<E> a) {
+        if (a.status == PUSH_HEAD)
+            stabilizeHead(a);
+        else if (a.status == PUSH_TAIL)
+            stabilizeTail(a);
+    }
+
+    // 将原头部节点的上一节点指向新头部节点，然后将锚点恢复为稳定状态。
+    private void stabilizeHead(Anchor<E> a) {
+        Node<E> node = a.head, next = node.next;
+        if (anchor.get() != a)
+            return;
+        Node<E> prev = next.prev;
+        if (prev != node) {
+            if (anchor.get() != a)
+                return;
+            if (!PREV.compareAndSet(next, prev, node))
+                return;
+        }
+        anchor.compareAndSet(a, new Anchor<>(a.head, a.tail, STABLE));
+    }
+
+    // 将原尾部节点的下一节点指向新尾部节点，然后将锚点恢复为稳定状态。
+    private void stabilizeTail(Anchor<E> a) {
+        Node<E> node = a.tail, prev = node.prev;
+        if (anchor.get() != a)
+            return;
+        Node<E> next = prev.next;
+        if (next != node) {
+            if (anchor.get() != a)
+                return;
+            if (!NEXT.compareAndSet(prev, next, node))
+                return;
+        }
+        anchor.compareAndSet(a, new Anchor<>(a.head, a.tail, STABLE));
+    }
+
+    // 获取稳定状态的锚点
+    private Anchor<E> stableAnchor() {
+        for (;;) {
+            Anchor<E> a = anchor.get();
+            if (a.status == STABLE)
+                return a;
+            stabilize(a);
+        }
+    }
+
+    // 逻辑删除节点
+    private static <E> boolean unlink(Node<E> node, Object o) {
+        Object item = node.item;
+        return item != null && item.equals(o) && ITEM.compareAndSet(node, item, null);
+    }
+
+    //==================================================================================================================
+    // 链表接口功能
+    //==================================================================================================================
+
+    public void addFirst(E element) {
+        pushHead(element);
+    }
+
+    public void addLast(E element) {
+        pushTail(element);
+    }
+
+    public boolean offerFirst(E element) {
+        pushHead(element);
+        return true;
+    }
+
+    public boolean offerLast(E element) {
+        pushTail(element);
+        return true;
+    }
+
+    public E removeFirst() {
+        E item = popHead();
+        if (item == null)
+            throw new NoSuchElementException();
+        return item;
+    }
+
+    public E removeLast() {
+        E item = popTail();
+        if (item == null)
+            throw new NoSuchElementException();
+        return item;
+    }
+
+    public E pollFirst() {
+        return popHead();
+    }
+
+    public E pollLast() {
+        return popTail();
+    }
+
+    public E getFirst() {
+        E item = peekFirst();
+        if (item == null)
+            throw new NoSuchElementException();
+        return item;
+    }
+
+    public E getLast() {
+        E item = peekLast();
+        if (item == null)
+            throw new NoSuchElementException();
+        return item;
+    }
+
+    public E peekFirst() {
+        for (E item : this)
+            return item;
+        return null;
+    }
+
+    public E peekLast() {
+        Iterator<E> iter = descendingIterator();
+        return iter.hasNext() ? iter.next() : null;
+    }
+
+    public boolean removeFirstOccurrence(Object o) {
+        checkNotNull(o);
+        Itr iter = new Itr(true);
+        while (iter.hasNext()) {
+            iter.next();
+            if (unlink(iter.lastRet, o))
+                return true;
+        }
+        return false;
+    }
+
+    public boolean removeLastOccurrence(Object o) {
+        checkNotNull(o);
+        Itr iter = new Itr(false);
+        while (iter.hasNext()) {
+            iter.next();
+            if (unlink(iter.lastRet, o))
+                return true;
+        }
+        return false;
+    }
+
+    public boolean add(E element) {
+        pushTail(element);
+        return true;
+    }
+
+    public boolean offer(E element) {
+        pushTail(element);
+        return true;
+    }
+
+    public E remove() {
+        return removeFirst();
+    }
+
+    public E poll() {
+        return popHead();
+    }
+
+    public E element() {
+        return getFirst();
+    }
+
+    public E peek() {
+        return peekFirst();
+    }
+
+    public void push(E element) {
+        pushHead(element);
+    }
+
+    public E pop() {
+        return removeFirst();
+    }
+
+    public boolean remove(Object o) {
+        return removeFirstOccurrence(o);
+    }
+
+    public boolean contains(Object o) {
+        if (o == null)
+            return false;
+        for (E element : this)
+            if (element.equals(o))
+                return true;
+        return false;
+    }
+
+    public boolean isEmpty() {
+        return peekFirst() == null;
+    }
+
+    /**
+     * 获取元素数量。需要遍历链表，并发修改时结果只是近似值。
+     * @return 返回元素数量。
+     */
+    public int size() {
+        int count = 0;
+        for (Iterator<E> iter = iterator(); iter.hasNext(); iter.next()) {
+            if (++count == Integer.MAX_VALUE)
+                break;
+        }
+        return count;
+    }
+
+    public void clear() {
+        while (popHead() != null)
+            ;
+    }
+
+    public Iterator<E> iterator() {
+        return new Itr(true);
+    }
+
+    public Iterator<E> descendingIterator() {
+        return new Itr(false);
+    }
+
+    //==================================================================================================================
+    // 链表内部接口实现
+    //==================================================================================================================
+
+    /**
+     * 锚点，记录头部节点、尾部节点和状态。
+     */
+    private final static class Anchor<E> {
+        final Node<E> head;
+        final Node<E> tail;
+        final int     status;
+
+        Anchor(Node<E> head, Node<E> tail, int status) {
+            this.head   = head;
+            this.tail   = tail;
+            this.status = status;
+        }
+    }
+
+    /**
+     * 双向节点
+     */
+    private final static class Node<E> {
+        volatile Node<E> prev;
+        volatile Node<E> next;
+        volatile E       item;
+
+        Node(E value) {
+            this.item = value;
+        }
+
+        @Override
+        public String toString() {
+            return String.valueOf(item);
+        }
+    }
+
+    /**
+     * 弱一致性迭代器。从创建时锚点的一端开始遍历到另一端，跳过已删除的节点。
+     */
+    private final class Itr implements Iterator<E> {
+        final boolean ascending;
+        final Node<E> last;
+        Node<E>       nextNode;
+        E             nextItem;
+        Node<E>       lastRet;
+
+        Itr(boolean ascending) {
+            Anchor<E> a = stableAnchor();
+            this.ascending = ascending;
+            this.last      = ascending ? a.tail : a.head;
+            advance(ascending ? a.head : a.tail);
+        }
+
+        // 从指定节点开始查找下一个未删除的节点
+        private void advance(Node<E> node) {
+            while (node != null) {
+                E item = node.item;
+                if (item != null) {
+                    nextNode = node;
+                    nextItem = item;
+                    return;
+                }
+                node = node == last ? null : (ascending ? node.next : node.prev);
+            }
+            nextNode = null;
+            nextItem = null;
+        }
+
+        public boolean hasNext() {
+            return nextNode != null;
+        }
+
+        public E next() {
+            Node<E> node = nextNode;
+            if (node == null)
+                throw new NoSuchElementException();
+            E item = nextItem;
+            lastRet = node;
+            advance(node == last ? null : (ascending ? node.next : node.prev));
+            return item;
+        }
+
+        public void remove() {
+            Node<E> node = lastRet;
+            if (node == null)
+                throw new IllegalStateException();
+            lastRet = null;
+            node.item = null;
+        }
+    }
+}
@@ -0,0 +1,394 @@
+package com.liuyang.util;
+
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.DoubleConsumer;
+import java.util.stream.DoubleStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * double 链表
+ * <p>
+ *     直接保存 double 值的双向链表，添加、读取、遍历都不装箱，内存开销约为每个元素 double 值加两个 int 链接。
+ *     节点存放在数组中：值、上一节点、下一节点分别保存在三个数组的同一位置，链接为数组下标，-1 表示空。
+ *     删除的位置放入空闲链表，供之后添加的元素复用。
+ * </p>
+ * <p>
+ *     按索引访问时从距离最近的一端或最近一次访问的节点开始查找。非线程安全。
+ * </p>
+ *
+ * @author liuyang
+ * @version 1.0.1
+ */
+public class DoubleLinkedList {
+    private final static int NIL              = -1;
+    private final static int DEFAULT_CAPACITY = 16;
+
+    private double[] values;
+    private int[]    prev;
+    private int[]    next;
+    private int      head     = NIL;
+    private int      tail     = NIL;
+    /** 空闲链表，通过 next 数组链接。 */
+    private int      free     = NIL;
+    /** 已使用过的数组长度，之后的位置从未使用。 */
+    private int      used     = 0;
+    private int      size     = 0;
+    private int      modCount = 0;
+    /** 最近一次按索引访问的节点及其索引，操作记录数改变后失效。 */
+    private int      fingerNode;
+    private int      fingerIndex;
+    private int      fingerModCount = -1;
+
+    /**
+     * 创建 double 链表
+     */
+    public DoubleLinkedList() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * 创建 double 链表
+     * @param capacity 初始容量
+     */
+    public DoubleLinkedList(int capacity) {
+        if (capacity < 0)
+            throw new IllegalArgumentException("Illegal capacity: " + capacity);
+        this.values = new double[capacity];
+        this.prev   = new int[capacity];
+        this.next   = new int[capacity];
+    }
+
+    /**
+     * 创建 double 链表，并按顺序添加指定的值。
+     * @param array 指定的值
+     * @return 返回新建的链表。
+     */
+    public static DoubleLinkedList of(double... array) {
+        DoubleLinkedList list = new DoubleLinkedList(Math.max(array.length, DEFAULT_CAPACITY));
+        for (double value : array)
+            list.addLast(value);
+        return list;
+    }
+
+    //==================================================================================================================
+    // 链表核心功能
+    //==================================================================================================================
+
+    private static boolean check(double a, double b) {
+        return Double.doubleToLongBits(a) == Double.doubleToLongBits(b);
+    }
+
+    // 可用索引范围检查
+    private void rangeCheck(int index) {
+        if (index >= size || index < 0)
+            throw new IndexOutOfBoundsException("Range out of 0 - " + size + " (" + index + ")");
+    }
+
+    // 插入位置范围检查，允许在末尾位置插入。
+    private void positionCheck(int index) {
+        if (index > size || index < 0)
+            throw new IndexOutOfBoundsException("Range out of 0 - " + size + " (" + index + ")");
+    }
+
+    // 分配节点，优先复用空闲节点，容量不足时扩容为 1.5 倍。
+    private int allocate(double value) {
+        int node = free;
+        if (node != NIL) {
+            free = next[node];
+        } else {
+            if (used == values.length) {
+                int capacity = Math.max(DEFAULT_CAPACITY, used + (used >> 1));
+                values = Arrays.copyOf(values, capacity);
+                prev   = Arrays.copyOf(prev, capacity);
+                next   = Arrays.copyOf(next, capacity);
+            }
+            node = used++;
+        }
+        values[node] = value;
+        return node;
+    }
+
+    // 在指定节点前面插入。指定节点为 NIL 时插入到末尾。
+    private void linkBefore(int succ, double value) {
+        int node = allocate(value);
+        int pred = succ == NIL ? tail : prev[succ];
+        prev[node] = pred;
+        next[node] = succ;
+        if (pred == NIL)
+            head = node;
+        else
+            next[pred] = node;
+        if (succ == NIL)
+            tail = node;
+        else
+            prev[succ] = node;
+        size++;
+        modCount++;
+    }
+
+    // 删除节点，节点放入空闲链表。
+    private double unlink(int node) {
+        int pred = prev[node], succ = next[node];
+        if (pred == NIL)
+            head = succ;
+        else
+            next[pred] = succ;
+        if (succ == NIL)
+            tail = pred;
+        else
+            prev[succ] = pred;
+        next[node] = free;
+        free = node;
+        size--;
+        modCount++;
+        return values[node];
+    }
+
+    // 搜索节点
+    private int search(int index) {
+        rangeCheck(index);
+        int node, from;
+        if (index < size - 1 - index) {
+            node = head;
+            from = 0;
+        } else {
+            node = tail;
+            from = size - 1;
+        }
+        if (fingerModCount == modCount && Math.abs(fingerIndex - index) < Math.abs(from - index)) {
+            node = fingerNode;
+            from = fingerIndex;
+        }
+        for (; from < index; from++)
+            node = next[node];
+        for (; from > index; from--)
+            node = prev[node];
+        fingerNode     = node;
+        fingerIndex    = index;
+        fingerModCount = modCount;
+        return node;
+    }
+
+    //==================================================================================================================
+    // 链表接口功能
+    //==================================================================================================================
+
+    public boolean add(double value) {
+        linkBefore(NIL, value);
+        return true;
+    }
+
+    public void add(int index, double value) {
+        positionCheck(index);
+        linkBefore(index == size ? NIL : search(index), value);
+    }
+
+    public void addFirst(double value) {
+        linkBefore(head, value);
+    }
+
+    public void addLast(double value) {
+        linkBefore(NIL, value);
+    }
+
+    public double get(int index) {
+        return values[search(index)];
+    }
+
+    public double getFirst() {
+        if (head == NIL)
+            throw new NoSuchElementException();
+        return values[head];
+    }
+
+    public double getLast() {
+        if (tail == NIL)
+            throw new NoSuchElementException();
+        return values[tail];
+    }
+
+    public double set(int index, double value) {
+        int node = search(index);
+        double old = values[node];
+        values[node] = value;
+        return old;
+    }
+
+    /**
+     * 删除指定索引位置的值
+     * @param index 指定索引
+     * @return 返回删除的值。
+     */
+    public double removeAt(int index) {
+        return unlink(search(index));
+    }
+
+    /**
+     * 删除第一个等于指定值的元素
+     * @param value 指定值
+     * @return 返回 true 表示已删除。
+     */
+    public boolean removeValue(double value) {
+        for (int node = head; node != NIL; node = next[node]) {
+            if (check(values[node], value)) {
+                unlink(node);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public double removeFirst() {
+        if (head == NIL)
+            throw new NoSuchElementException();
+        return unlink(head);
+    }
+
+    public double removeLast() {
+        if (tail == NIL)
+            throw new NoSuchElementException();
+        return unlink(tail);
+    }
+
+    public int indexOf(double value) {
+        int index = 0;
+        for (int node = head; node != NIL; node = next[node], index++)
+            if (check(values[node], value))
+                return index;
+        return -1;
+    }
+
+    public int lastIndexOf(double value) {
+        int index = size - 1;
+        for (int node = tail; node != NIL; node = prev[node], index--)
+            if (check(values[node], value))
+                return index;
+        return -1;
+    }
+
+    public boolean contains(double value) {
+        return indexOf(value) >= 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * 清空链表，保留已分配的数组。
+     */
+    public void clear() {
+        head = tail = free = NIL;
+        used = size = 0;
+        modCount++;
+    }
+
+    public double[] toArray() {
+        double[] array = new double[size];
+        int i = 0;
+        for (int node = head; node != NIL; node = next[node])
+            array[i++] = values[node];
+        return array;
+    }
+
+    public void forEach(DoubleConsumer action) {
+        int expectedModCount = modCount;
+        for (int node = head; node != NIL; node = next[node])
+            action.accept(values[node]);
+        if (modCount != expectedModCount)
+            throw new ConcurrentModificationException();
+    }
+
+    public PrimitiveIterator.OfDouble iterator() {
+        return new Itr();
+    }
+
+    public Spliterator.OfDouble spliterator() {
+        return Spliterators.spliterator(iterator(), size, Spliterator.ORDERED);
+    }
+
+    public DoubleStream stream() {
+        return StreamSupport.doubleStream(spliterator(), false);
+    }
+
+    public DoubleStream parallelStream() {
+        return StreamSupport.doubleStream(spliterator(), true);
+    }
+
+    public boolean equals(Object o) {
+        if (o == this)
+            return true;
+        if (!(o instanceof DoubleLinkedList))
+            return false;
+        DoubleLinkedList other = (DoubleLinkedList) o;
+        if (size != other.size)
+            return false;
+        for (int a = head, b = other.head; a != NIL; a = next[a], b = other.next[b])
+            if (!check(values[a], other.values[b]))
+                return false;
+        return true;
+    }
+
+    public int hashCode() {
+        int hashCode = 1;
+        for (int node = head; node != NIL; node = next[node])
+            hashCode = 31 * hashCode + Double.hashCode(values[node]);
+        return hashCode;
+    }
+
+    public String toString() {
+        StringBuilder builder = new StringBuilder("[");
+        for (int node = head; node != NIL; node = next[node]) {
+            if (node != head)
+                builder.append(", ");
+            builder.append(values[node]);
+        }
+        return builder.append(']').toString();
+    }
+
+    //==================================================================================================================
+    // 链表内部接口实现
+    //==================================================================================================================
+
+    /**
+     * 迭代器，返回值不装箱。
+     */
+    private final class Itr implements PrimitiveIterator.OfDouble {
+        int node             = head;
+        int lastRet          = NIL;
+        int expectedModCount = modCount;
+
+        public boolean hasNext() {
+            return node != NIL;
+        }
+
+        public double nextDouble() {
+            if (modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+            if (node == NIL)
+                throw new NoSuchElementException();
+            lastRet = node;
+            node    = next[node];
+            return values[lastRet];
+        }
+
+        public void remove() {
+            if (lastRet == NIL)
+                throw new IllegalStateException();
+            if (modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+            unlink(lastRet);
+            lastRet          = NIL;
+            expectedModCount = modCount;
+        }
+    }
+}
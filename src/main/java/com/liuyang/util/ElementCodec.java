@@ -0,0 +1,102 @@
+package com.liuyang.util;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 元素编码
+ * <p>
+ *     将元素编码为字节保存到 {@link ByteBuffer} 中，或从中解码。供 {@link OffHeapLinkedList} 等在堆外保存元素的容器使用。
+ * </p>
+ * <p>
+ *     编码时从缓冲区的当前位置开始写入，剩余空间不足时抛出 {@link java.nio.BufferOverflowException}，
+ *     调用方会换用更大的缓冲区重新编码。解码时缓冲区的当前位置到限制位置恰好是一个元素的全部内容，
+ *     解码结果不能引用该缓冲区。
+ * </p>
+ * @param <E>
+ *
+ * @author liuyang
+ * @version 1.0.1
+ */
+public interface ElementCodec<E> {
+
+    /** 字符串，UTF-8 编码。 */
+    ElementCodec<String> STRING = new ElementCodec<String>() {
+        public void encode(String element, ByteBuffer buffer) {
+            buffer.put(element.getBytes(StandardCharsets.UTF_8));
+        }
+
+        public String decode(ByteBuffer buffer) {
+            if (buffer.hasArray()) {
+                String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(),
+                        buffer.remaining(), StandardCharsets.UTF_8);
+                buffer.position(buffer.limit());
+                return value;
+            }
+            byte[] bytes = new byte[buffer.remaining()];
+            buffer.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    };
+
+    /** 字节数组，原样保存。 */
+    ElementCodec<byte[]> BYTES = new ElementCodec<byte[]>() {
+        public void encode(byte[] element, ByteBuffer buffer) {
+            buffer.put(element);
+        }
+
+        public byte[] decode(ByteBuffer buffer) {
+            byte[] bytes = new byte[buffer.remaining()];
+            buffer.get(bytes);
+            return bytes;
+        }
+    };
+
+    /** 整数，固定 4 字节。 */
+    ElementCodec<Integer> INTEGER = new ElementCodec<Integer>() {
+        public void encode(Integer element, ByteBuffer buffer) {
+            buffer.putInt(element);
+        }
+
+        public Integer decode(ByteBuffer buffer) {
+            return buffer.getInt();
+        }
+    };
+
+    /** 长整数，固定 8 字节。 */
+    ElementCodec<Long> LONG = new ElementCodec<Long>() {
+        public void encode(Long element, ByteBuffer buffer) {
+            buffer.putLong(element);
+        }
+
+        public Long decode(ByteBuffer buffer) {
+            return buffer.getLong();
+        }
+    };
+
+    /** 浮点数，固定 8 字节。 */
+    ElementCodec<Double> DOUBLE = new ElementCodec<Double>() {
+        public void encode(Double element, ByteBuffer buffer) {
+            buffer.putDouble(element);
+        }
+
+        public Double decode(ByteBuffer buffer) {
+            return buffer.getDouble();
+        }
+    };
+
+    /**
+     * 编码元素
+     * @param element 元素，不为 null。
+     * @param buffer  目标缓冲区，从当前位置开始写入。
+     * @throws java.nio.BufferOverflowException 缓冲区剩余空间不足。
+     */
+    void encode(E element, ByteBuffer buffer);
+
+    /**
+     * 解码元素
+     * @param buffer 源缓冲区，当前位置到限制位置为一个元素的内容。
+     * @return 返回解码后的元素。
+     */
+    E decode(ByteBuffer buffer);
+}
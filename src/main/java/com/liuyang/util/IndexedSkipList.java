@@ -0,0 +1,276 @@
+package com.liuyang.util;
+
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * 索引跳表
+ * <p>
+ *     按位置排列元素的跳表，每一层的链接都记录跨越的元素数（跨度），按索引查找时沿各层累加跨度定位，
+ *     因此按索引读取、插入、删除都是 O(log n)，适用于频繁在中间位置插入、删除的有序缓冲区。
+ * </p>
+ * <p>
+ *     节点层数随机生成，每升高一层的概率为 1/4，最高 {@link #MAX_LEVEL} 层。
+ *     非线程安全。
+ * </p>
+ * @param <E>
+ *
+ * @author liuyang
+ * @version 1.0.1
+ */
+public class IndexedSkipList<E> extends AbstractList<E> {
+    /** 最高层数 */
+    public final static int MAX_LEVEL = 32;
+
+    private final Node<E> head  = new Node<>(null, MAX_LEVEL);
+    private int           level = 1;
+    private int           size  = 0;
+    /** 层数随机数种子（xorshift） */
+    private int           seed  = (int) System.nanoTime() | 1;
+
+    /**
+     * 创建索引跳表
+     */
+    public IndexedSkipList() {
+    }
+
+    /**
+     * 创建索引跳表，并按顺序添加指定集合中的元素。
+     * @param collection 指定集合
+     */
+    public IndexedSkipList(Collection<? extends E> collection) {
+        addAll(collection);
+    }
+
+    //==================================================================================================================
+    // 跳表核心功能
+    //==================================================================================================================
+
+    // 可用索引范围检查
+    private void rangeCheck(int index) {
+        if (index >= size || index < 0)
+            throw new IndexOutOfBoundsException("Range out of 0 - " + size + " (" + index + ")");
+    }
+
+    // 插入位置范围检查，允许在末尾位置插入。
+    private void positionCheck(int index) {
+        if (index > size || index < 0)
+            throw new IndexOutOfBoundsException("Range out of 0 - " + size + " (" + index + ")");
+    }
+
+    private int randomLevel() {
+        int x = seed;
+        x ^= x << 13;
+        x ^= x >>> 17;
+        x ^= x << 5;
+        seed = x;
+        int lvl = 1;
+        // 每两位随机数决定是否升高一层，概率为 1/4
+        while (lvl < MAX_LEVEL && (x & 3) == 0) {
+            lvl++;
+            x >>>= 2;
+        }
+        return lvl;
+    }
+
+    // 查找第 rank 个节点（头部节点为第 0 个），返回该节点。
+    private Node<E> search(int rank) {
+        Node<E> x = head;
+        int pos = 0;
+        for (int l = level - 1; l >= 0; l--) {
+            while (x.next[l] != null && pos + x.span[l] <= rank) {
+                pos += x.span[l];
+                x = x.next[l];
+            }
+        }
+        return x;
+    }
+
+    // 查找各层中位于第 rank 个节点及之前的最后一个节点，结果保存在 update 中，对应的位置保存在 ranks 中。
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private Node<E>[] predecessors(int rank, int[] ranks) {
+        Node<E>[] update = new Node[MAX_LEVEL];
+        Node<E> x = head;
+        int pos = 0;
+        for (int l = level - 1; l >= 0; l--) {
+            while (x.next[l] != null && pos + x.span[l] <= rank) {
+                pos += x.span[l];
+                x = x.next[l];
+            }
+            update[l] = x;
+            ranks[l]  = pos;
+        }
+        return update;
+    }
+
+    //==================================================================================================================
+    // 列表接口功能
+    //==================================================================================================================
+
+    public E get(int index) {
+        rangeCheck(index);
+        return search(index + 1).item;
+    }
+
+    public E set(int index, E element) {
+        rangeCheck(index);
+        Node<E> node = search(index + 1);
+        E value = node.item;
+        node.item = element;
+        return value;
+    }
+
+    public boolean add(E element) {
+        add(size, element);
+        return true;
+    }
+
+    public void add(int index, E element) {
+        positionCheck(index);
+        int[] ranks = new int[MAX_LEVEL];
+        Node<E>[] update = predecessors(index, ranks);
+        int lvl = randomLevel();
+        if (lvl > level) {
+            for (int l = level; l < lvl; l++) {
+                update[l] = head;
+                ranks[l]  = 0;
+                head.span[l] = size;
+            }
+            level = lvl;
+        }
+        Node<E> node = new Node<>(element, lvl);
+        for (int l = 0; l < lvl; l++) {
+            Node<E> prev = update[l];
+            node.next[l] = prev.next[l];
+            prev.next[l] = node;
+            // 前一节点到新节点的距离为 index - ranks[l] + 1
+            node.span[l] = prev.span[l] - (index - ranks[l]);
+            prev.span[l] = index - ranks[l] + 1;
+        }
+        for (int l = lvl; l < level; l++)
+            update[l].span[l]++;
+        size++;
+        modCount++;
+    }
+
+    public E remove(int index) {
+        rangeCheck(index);
+        int[] ranks = new int[MAX_LEVEL];
+        Node<E>[] update = predecessors(index, ranks);
+        Node<E> node = update[0].next[0];
+        for (int l = 0; l < level; l++) {
+            Node<E> prev = update[l];
+            if (prev.next[l] == node) {
+                prev.span[l] += node.span[l] - 1;
+                prev.next[l] = node.next[l];
+            } else {
+                prev.span[l]--;
+            }
+        }
+        while (level > 1 && head.next[level - 1] == null)
+            level--;
+        size--;
+        modCount++;
+        return node.item;
+    }
+
+    public void clear() {
+        for (int l = 0; l < MAX_LEVEL; l++) {
+            head.next[l] = null;
+            head.span[l] = 0;
+        }
+        level = 1;
+        size  = 0;
+        modCount++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int indexOf(Object o) {
+        int index = 0;
+        for (Node<E> x = head.next[0]; x != null; x = x.next[0], index++)
+            if (Objects.equals(o, x.item))
+                return index;
+        return -1;
+    }
+
+    public boolean contains(Object o) {
+        return indexOf(o) >= 0;
+    }
+
+    public void forEach(Consumer<? super E> action) {
+        Objects.requireNonNull(action);
+        int expectedModCount = modCount;
+        for (Node<E> x = head.next[0]; x != null; x = x.next[0])
+            action.accept(x.item);
+        if (modCount != expectedModCount)
+            throw new ConcurrentModificationException();
+    }
+
+    public Iterator<E> iterator() {
+        return new Itr();
+    }
+
+    //==================================================================================================================
+    // 跳表内部接口实现
+    //==================================================================================================================
+
+    /**
+     * 跳表节点，每层记录下一节点和跨度。
+     */
+    private final static class Node<E> {
+        E               item;
+        final Node<E>[] next;
+        final int[]     span;
+
+        @SuppressWarnings({"rawtypes", "unchecked"})
+        Node(E item, int level) {
+            this.item = item;
+            this.next = new Node[level];
+            this.span = new int[level];
+        }
+    }
+
+    /**
+     * 迭代器，沿最底层顺序访问。
+     */
+    private final class Itr implements Iterator<E> {
+        Node<E> next             = head.next[0];
+        int     cursor           = 0;
+        int     lastRet          = -1;
+        int     expectedModCount = modCount;
+
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        public E next() {
+            if (modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+            if (next == null)
+                throw new NoSuchElementException();
+            E item = next.item;
+            next    = next.next[0];
+            lastRet = cursor++;
+            return item;
+        }
+
+        public void remove() {
+            if (lastRet < 0)
+                throw new IllegalStateException();
+            if (modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+            IndexedSkipList.this.remove(lastRet);
+            cursor           = lastRet;
+            lastRet          = -1;
+            expectedModCount = modCount;
+        }
+    }
+}
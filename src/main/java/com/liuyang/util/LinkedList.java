@@ -2,8 +2,17 @@ package com.liuyang.util;
 
 import com.sun.istack.internal.NotNull;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 /**
  * 链表
@@ -30,6 +39,26 @@ public class LinkedList<E> implements List<E> {
     private transient volatile int           size     = 0;
     /** 循环链表标识，循环链表头尾相连。 */
     private transient volatile boolean       loop;
+    /** 最近一次按索引访问的节点，下次按索引访问时可从此处开始查找。 */
+    private transient volatile Finger<E>     finger   = null;
+    /** 元素索引，开启后记录元素到节点的映射，重复元素映射到节点列表。未开启时为 null。 */
+    private transient volatile HashMap<Object, Object> index = null;
+    /** 节点池，删除的节点通过 next 链接后保存在此，添加元素时优先复用。 */
+    private transient Node<E>                pool     = null;
+    private transient int                    poolSize = 0;
+    /** 节点池容量，为 0 时不复用节点。 */
+    private transient volatile int           poolCapacity = 0;
+    private transient volatile long          poolHits     = 0;
+    private transient volatile long          poolMisses   = 0;
+
+    /** 两个链表的同步顺序相同时使用的锁 */
+    private final static Object TIE_LOCK = new Object();
+    /** 批量删除时，参数集合的元素数超过此值且不是 Set 时先复制为 HashSet。 */
+    private final static int    LOOKUP_THRESHOLD = 16;
+    /** 并行排序时每段的最少节点数，节点数不足两段时按顺序排序。 */
+    private final static int    PARALLEL_SORT_GRANULARITY = 1 << 13;
+    /** 写入输出流时的编码缓冲区大小，元素按块编码后整块写出。 */
+    private final static int    STREAM_BLOCK_SIZE = 1 << 16;
 
     private static <E> boolean check(E a, Object b) {
         if (a == null) {
@@ -48,12 +77,13 @@ public class LinkedList<E> implements List<E> {
     }
 
     /**
-     * 建立循环链表
+     * 建立循环链表。循环链表的尾部节点与头部节点相连，按索引访问、遍历仍以头部节点为起点。
+     * 需要固定容量、写满后覆盖最早元素的环形缓冲区时，使用 {@link RingList}。
      * @param loop 链表是否可以循环
      */
     public LinkedList(boolean loop) {
         this.current       = LinkedList.this;
-        this.loop          = false;
+        this.loop          = loop;
     }
 
     /**
@@ -70,8 +100,10 @@ public class LinkedList<E> implements List<E> {
         this.modCount     = parent.modCount;
         this.loop         = false;
         // 定位头部节点和尾部节点
-        this.head         = parent.search(fromIndex);
-        this.tail         = parent.search(toIndex);
+        if (size > 0) {
+            this.head     = parent.search(fromIndex);
+            this.tail     = parent.search(toIndex - 1);
+        }
     }
 
     //==================================================================================================================
@@ -80,7 +112,14 @@ public class LinkedList<E> implements List<E> {
 
     // 可用索引范围检查
     private void rangeCheck(int index) {
-        if (index >= size && index < 0) {
+        if (index >= size || index < 0) {
+            throw new IndexOutOfBoundsException("Range out of 0 - " + size + " (" + index + ")");
+        }
+    }
+
+    // 插入位置范围检查，允许在末尾位置插入。
+    private void positionCheck(int index) {
+        if (index > size || index < 0) {
             throw new IndexOutOfBoundsException("Range out of 0 - " + size + " (" + index + ")");
         }
     }
@@ -93,6 +132,54 @@ public class LinkedList<E> implements List<E> {
             throw new ConcurrentModificationException();
     }
 
+    // 顶层链表。子链表的节点属于顶层链表，元素索引也由顶层链表维护。
+    private LinkedList<E> root() {
+        LinkedList<E> root = this;
+        while (root.parent != null)
+            root = root.parent;
+        return root;
+    }
+
+    // 将节点加入元素索引
+    @SuppressWarnings({"unchecked"})
+    private void index(Node<E> node) {
+        HashMap<Object, Object> map = index;
+        if (map == null)
+            return;
+        Object found = map.putIfAbsent(node.item, node);
+        if (found instanceof Node) {
+            ArrayList<Node<E>> nodes = new ArrayList<>(2);
+            nodes.add((Node<E>) found);
+            nodes.add(node);
+            map.put(node.item, nodes);
+        } else if (found != null) {
+            ((ArrayList<Node<E>>) found).add(node);
+        }
+    }
+
+    // 将节点从元素索引中删除
+    @SuppressWarnings({"unchecked"})
+    private void unindex(Node<E> node) {
+        HashMap<Object, Object> map = index;
+        if (map == null)
+            return;
+        Object found = map.get(node.item);
+        if (found == node) {
+            map.remove(node.item);
+        } else if (found instanceof ArrayList) {
+            ArrayList<Node<E>> nodes = (ArrayList<Node<E>>) found;
+            // 节点的 equals 比较的是数据，这里需要按引用删除
+            for (int i = 0; i < nodes.size(); i++) {
+                if (nodes.get(i) == node) {
+                    nodes.remove(i);
+                    break;
+                }
+            }
+            if (nodes.size() == 1)
+                map.put(node.item, nodes.get(0));
+        }
+    }
+
     /**
      * 循环链表判定。如果是循环链表，则进行头尾链接。
      */
@@ -115,23 +202,24 @@ public class LinkedList<E> implements List<E> {
             tail = tail.next = node;
         }
         // System.out.println("LinkedList.appendNode: " + node);
+        index(node);
         loopLinked();
         size++;
         modCount++;
         return node;
     }
 
-    // 追加节点。在指定位置后追加。
+    // 插入节点。插入到指定位置，原位置及之后的节点后移。
     private synchronized Node<E> appendNode(int index, @NotNull Node<E> node) {
-        rangeCheck(index);
-        if (index == 0) {
-            return insertNodeA(head, node);
-        } else if (index == size - 1) {
-            return appendNode(node);
+        positionCheck(index);
+        if (index == size) {
+            appendNode(node);
         } else {
-            Node<E> curr = search(index);
-            return insertNodeA(curr, node);
+            insertNodeB(search(index), node);
         }
+        // 新节点位于指定位置，下次在相邻位置插入时无需重新查找。
+        finger = new Finger<>(node, index, modCount);
+        return node;
     }
 
     // 在指定节点后面插入
@@ -144,6 +232,7 @@ public class LinkedList<E> implements List<E> {
             node.next = curr.next;
             // 修改 当前节点的下一节点 与 当前节点的下一节点的前一个节点 指向为新插入的节点。
             curr.next = curr.next.prev = node;
+            index(node);
             size++;
             modCount++;
         }
@@ -151,7 +240,6 @@ public class LinkedList<E> implements List<E> {
     }
 
     // 在指定节点前面插入
-    @SuppressWarnings({"unused"})
     private synchronized Node<E> insertNodeB(@NotNull Node<E> curr, @NotNull Node<E> node) {
         if (curr == head) {
             node.next = head;
@@ -163,6 +251,7 @@ public class LinkedList<E> implements List<E> {
             // 修改 当前节点的前一节点 与 当前节点的前一节点的下一节点 指向
             curr.prev = curr.prev.next = node;
         }
+        index(node);
         size++;
         modCount++;
         return node;
@@ -171,6 +260,7 @@ public class LinkedList<E> implements List<E> {
     // 删除头部节点
     private synchronized Node<E> removeHead() {
         Node<E> node = head;
+        unindex(node);
         if (size == 1) {
             head = tail = null;
         } else {
@@ -195,6 +285,7 @@ public class LinkedList<E> implements List<E> {
             node.next.prev = node.prev;
             // 指定节点.上一节点.下一节点 指向 指定节点.下一节点
             node.prev.next = node.next;
+            unindex(node);
             size--;
             modCount++;
         }
@@ -204,6 +295,7 @@ public class LinkedList<E> implements List<E> {
     // 删除尾部节点
     private synchronized Node<E> removeTail() {
         Node<E> node = tail;
+        unindex(node);
         if (size == 1) {
             head = tail = null;
         } else {
@@ -216,55 +308,280 @@ public class LinkedList<E> implements List<E> {
         return node;
     }
 
-    // ******搜索算法待优化
-    // 搜索节点
-    // 头部节点和尾部节点可以直接检索，而中间节点可采集二分法检索，因为头部和尾节点是固定的相邻的。
-    private Node<E> search(int index) {
-        rangeCheck(index);
-        if (size == 0)
-            return null;
-        if (index == 0) {
-            return  head;
-        } else if (index == size - 1) {
-            return tail;
+    // 创建节点，开启节点池时优先复用。
+    private Node<E> obtain(E element) {
+        if (poolCapacity == 0)
+            return new Node<>(element);
+        Node<E> node = pool;
+        if (node == null) {
+            poolMisses++;
+            return new Node<>(element);
+        }
+        pool = node.next;
+        poolSize--;
+        poolHits++;
+        node.next = null;
+        node.item = element;
+        return node;
+    }
+
+    // 回收已删除的节点。只回收由链表自身删除的节点；迭代器仍可能持有该节点，
+    // 因此开启节点池时迭代器在链表结构变化后快速失败，按索引、按元素查找在锁中进行。
+    private void recycle(Node<E> node) {
+        if (poolSize >= poolCapacity)
+            return;
+        node.item = null;
+        node.prev = null;
+        node.next = pool;
+        pool = node;
+        poolSize++;
+    }
+
+    // 在指定节点前面插入一串已经链接好的节点。指定节点为 null 时追加到末尾。
+    private synchronized void linkChain(Node<E> succ, @NotNull Node<E> first, @NotNull Node<E> last, int count) {
+        Node<E> pred = succ == null ? tail : (succ == head ? null : succ.prev);
+        first.prev = pred;
+        last.next  = succ;
+        if (pred == null)
+            head = first;
+        else
+            pred.next = first;
+        if (succ == null)
+            tail = last;
+        else
+            succ.prev = last;
+        if (index != null) {
+            Node<E> curr = first;
+            for (int i = 0; i < count; i++, curr = curr.next)
+                index(curr);
+        }
+        loopLinked();
+        size += count;
+        modCount++;
+    }
+
+    // 删除满足条件的节点，一次遍历完成，返回删除的节点数。
+    // 保留的节点依次重新链接；判断条件抛出异常时，尚未判断的节点保持原样。
+    private synchronized int removeMatching(Predicate<? super E> filter) {
+        int count = size, removed = 0, i = 0;
+        Node<E> curr = head, first = null, last = null;
+        try {
+            for (; i < count; i++) {
+                Node<E> next = curr.next;
+                if (filter.test(curr.item)) {
+                    unindex(curr);
+                    recycle(curr);
+                    removed++;
+                } else {
+                    if (last == null)
+                        first = curr;
+                    else
+                        last.next = curr;
+                    curr.prev = last;
+                    last = curr;
+                }
+                curr = next;
+            }
+        } finally {
+            if (removed > 0) {
+                if (i < count) {
+                    if (last == null)
+                        first = curr;
+                    else
+                        last.next = curr;
+                    curr.prev = last;
+                    last = tail;
+                } else if (last != null) {
+                    last.next = null;
+                }
+                head = first;
+                tail = last;
+                size -= removed;
+                modCount++;
+                if (head != null)
+                    loopLinked();
+            }
+        }
+        return removed;
+    }
+
+    // 批量删除时用于判断元素是否存在的集合
+    private static Collection<?> lookup(Collection<?> c) {
+        return c instanceof Set || c.size() <= LOOKUP_THRESHOLD ? c : new HashSet<>(c);
+    }
+
+    // 比较器为 null 时按自然顺序比较
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <E> Comparator<? super E> comparator(Comparator<? super E> c) {
+        return c != null ? c : (Comparator) Comparator.naturalOrder();
+    }
+
+    // 合并两串以 null 结尾的有序节点，只修改 next 链接。相等时 a 中的节点在前，保证排序稳定。
+    private static <E> Node<E> mergeChain(Node<E> a, Node<E> b, Comparator<? super E> c) {
+        if (a == null)
+            return b;
+        if (b == null)
+            return a;
+        Node<E> first, last;
+        if (c.compare(b.item, a.item) < 0) {
+            first = last = b;
+            b = b.next;
         } else {
-            Node<E> curr = head;
-            for (int i = 0; i < index; i++)
-                curr = curr.next;
-            return curr;
+            first = last = a;
+            a = a.next;
+        }
+        while (a != null && b != null) {
+            if (c.compare(b.item, a.item) < 0) {
+                last = last.next = b;
+                b = b.next;
+            } else {
+                last = last.next = a;
+                a = a.next;
+            }
+        }
+        last.next = a != null ? a : b;
+        return first;
+    }
+
+    // 自底向上归并排序从 first 开始的 count 个节点，只修改 next 链接，返回以 null 结尾的有序节点串。
+    // bins[i] 保存长度为 2^i 的有序节点串，每取出一个节点就与已有的等长节点串逐级合并。
+    private static <E> Node<E> sortChain(Node<E> first, int count, Comparator<? super E> c) {
+        @SuppressWarnings({"rawtypes", "unchecked"})
+        Node<E>[] bins = new Node[32];
+        Node<E> curr = first;
+        for (int n = 0; n < count; n++) {
+            Node<E> carry = curr;
+            curr = curr.next;
+            carry.next = null;
+            int i = 0;
+            for (; bins[i] != null; i++) {
+                carry = mergeChain(bins[i], carry, c);
+                bins[i] = null;
+            }
+            bins[i] = carry;
+        }
+        // 序号大的节点串中的节点位置靠前
+        Node<E> result = null;
+        for (Node<E> bin : bins)
+            result = mergeChain(bin, result, c);
+        return result;
+    }
+
+    // 排序完成后按 next 链接重建 prev 链接、头部节点和尾部节点。
+    private synchronized void relink(@NotNull Node<E> first) {
+        Node<E> prev = null;
+        for (Node<E> curr = first; curr != null; curr = curr.next) {
+            curr.prev = prev;
+            prev = curr;
+        }
+        head = first;
+        tail = prev;
+        loopLinked();
+        modCount++;
+    }
+
+    // 排序失败时按未修改的 prev 链接恢复原来的 next 链接，链表保持排序前的顺序。
+    private synchronized void restore() {
+        Node<E> next = null, curr = tail;
+        for (int i = 0; i < size; i++) {
+            curr.next = next;
+            next = curr;
+            curr = curr.prev;
+        }
+        loopLinked();
+    }
+
+    // 编码一个元素，先写入长度前缀，null 元素的长度为 -1。剩余空间不足时恢复缓冲区位置并返回 false。
+    private static <E> boolean encode(E element, ElementCodec<? super E> codec, ByteBuffer buffer) {
+        int start = buffer.position();
+        try {
+            buffer.putInt(-1);
+            if (element != null) {
+                codec.encode(element, buffer);
+                buffer.putInt(start, buffer.position() - start - 4);
+            }
+            return true;
+        } catch (BufferOverflowException e) {
+            buffer.position(start);
+            return false;
         }
-            /*else if (index <= size / 2){
-            // 二分检索前半部分
+    }
+
+    // 检查读取到的元素数和元素长度
+    private static int checkLength(int length, int min) throws StreamCorruptedException {
+        if (length < min)
+            throw new StreamCorruptedException("Illegal length: " + length);
+        return length;
+    }
+
+    // 将读取的节点串接到末尾
+    private synchronized int linkRead(Node<E> first, Node<E> last, int count) {
+        checkForComodification();
+        if (count > 0)
+            linkChain(null, first, last, count);
+        return count;
+    }
+
+    // 子链表排序。子链表的节点属于父链表，只排序元素后按顺序写回节点。
+    @SuppressWarnings({"unchecked"})
+    private void sortItems(Comparator<? super E> c) {
+        checkForComodification();
+        Object[] values = toArray();
+        Arrays.sort(values, (Comparator<Object>) c);
+        LinkedList<E> root = this;
+        while (root.parent != null)
+            root = root.parent;
+        synchronized (root) {
             Node<E> curr = head;
-            for (int i = 0; i < index; i++)
-                curr = curr.next;
-            return curr;
-        } else  {
-            // 二分检索后半部分
-            Node<E> curr = tail;
-            for (int i = size; i > index; i--)
+            for (Object value : values) {
+                root.unindex(curr);
+                curr.item = (E) value;
+                root.index(curr);
                 curr = curr.next;
-            return curr;
+            }
         }
-        }*/
     }
 
-    private Node<E> search(Object o) {
-        if (size == 0)
-            return null;
-        if (check(head.item, o)) {
+    // 搜索节点
+    // 从头部节点、尾部节点和最近一次访问的节点中选择距离最近的一个开始查找，
+    // 因此顺序或近似顺序的按索引访问每次只需移动很少的节点。
+    private Node<E> search(int index) {
+        rangeCheck(index);
+        if (index == 0)
             return head;
-        } else if (check(tail.item, o)) {
+        if (index == size - 1)
             return tail;
-        } else {
-            Node<E> curr = head;
-            for (int i = 0; i < size; i++) {
-                if (check(curr.item, o))
-                    return curr;
-                curr = curr.next;
-            }
-            return null;
+        // 先读取操作记录数，查找期间链表发生变化时，新记录的访问位置随即失效。
+        long mc = modCount;
+        Node<E> curr = head;
+        int from = 0;
+        if (size - 1 - index < index) {
+            curr = tail;
+            from = size - 1;
+        }
+        Finger<E> f = finger;
+        if (f != null && f.modCount == mc && Math.abs(f.index - index) < Math.abs(from - index)) {
+            curr = f.node;
+            from = f.index;
         }
+        for (; from < index; from++)
+            curr = curr.next;
+        for (; from > index; from--)
+            curr = curr.prev;
+        if (f == null || f.node != curr)
+            finger = new Finger<>(curr, index, mc);
+        return curr;
+    }
+
+    // 搜索第一个与指定数据相同的节点
+    private Node<E> search(Object o) {
+        Node<E> curr = head;
+        for (int i = 0; i < size; i++) {
+            if (check(curr.item, o))
+                return curr;
+            curr = curr.next;
+        }
+        return null;
     }
 
     //==================================================================================================================
@@ -273,34 +590,123 @@ public class LinkedList<E> implements List<E> {
 
     public final synchronized boolean add(E element) {
         checkForComodification();
-        appendNode(new Node<>(element));
+        appendNode(obtain(element));
         return true;
     }
 
     public final synchronized void add(int index, E element) {
-        rangeCheck(index);
+        positionCheck(index);
         checkForComodification();
-        appendNode(index, new Node<>(element));
+        appendNode(index, obtain(element));
     }
 
-    public final synchronized boolean addAll(Collection<? extends E> collection) {
-        checkForComodification();
-        collection.forEach(this::add);
-        return true;
+    /**
+     * 添加指定集合中的全部元素。先在锁外创建并链接好全部节点，再一次性接到末尾。
+     * @param collection 指定集合
+     * @return 返回 true 表示链表发生改变。
+     */
+    public final boolean addAll(Collection<? extends E> collection) {
+        return linkAll(-1, collection);
     }
 
-    public final synchronized boolean addAll(int index, Collection<? extends E> collection) {
-        rangeCheck(index);
-        checkForComodification();
-        // 检索指定位置的节点
-        Node<E> curr = search(index);
-        // 在指定位置的节点后开始插入节点
-        for(E element : collection)
-            curr = insertNodeA(curr, new Node<>(element));
+    /**
+     * 在指定位置插入指定集合中的全部元素。先在锁外创建并链接好全部节点，再一次性接入链表。
+     * @param index      指定位置，原位置及之后的元素后移。
+     * @param collection 指定集合
+     * @return 返回 true 表示链表发生改变。
+     */
+    public final boolean addAll(int index, Collection<? extends E> collection) {
+        if (index < 0)
+            positionCheck(index);
+        return linkAll(index, collection);
+    }
+
+    // 批量添加。指定位置小于 0 时追加到末尾。
+    private boolean linkAll(int index, Collection<? extends E> collection) {
+        Node<E> first = null, last = null;
+        int count = 0;
+        for (E element : collection) {
+            Node<E> node = new Node<>(element);
+            if (last == null) {
+                first = node;
+            } else {
+                node.prev = last;
+                last.next = node;
+            }
+            last = node;
+            count++;
+        }
+        synchronized (this) {
+            if (index >= 0)
+                positionCheck(index);
+            checkForComodification();
+            if (count == 0)
+                return false;
+            linkChain(index < 0 || index == size ? null : search(index), first, last, count);
+        }
         return true;
     }
 
+    /**
+     * 将指定链表的全部节点移动到本链表末尾，指定链表变为空链表。
+     * 只修改两端的链接，与元素数量无关；本链表开启元素索引时需要逐个加入索引。
+     * @param other 指定链表，不能是本链表。
+     */
+    public final void splice(LinkedList<E> other) {
+        if (other == this || other.parent != null || parent != null)
+            throw new IllegalArgumentException("Cannot splice a list into itself or a sub list.");
+        int a = System.identityHashCode(this), b = System.identityHashCode(other);
+        if (a == b) {
+            synchronized (TIE_LOCK) {
+                synchronized (this) {
+                    synchronized (other) {
+                        transferFrom(other);
+                    }
+                }
+            }
+        } else {
+            LinkedList<E> lock1 = a < b ? this : other, lock2 = a < b ? other : this;
+            synchronized (lock1) {
+                synchronized (lock2) {
+                    transferFrom(other);
+                }
+            }
+        }
+    }
+
+    // 取出指定链表的全部节点并接到末尾，调用时已持有两个链表的锁。
+    private void transferFrom(LinkedList<E> other) {
+        int count = other.size;
+        if (count == 0)
+            return;
+        Node<E> first = other.head, last = other.tail;
+        other.head = other.tail = null;
+        other.size = 0;
+        other.modCount++;
+        if (other.index != null)
+            other.index.clear();
+        // 断开循环链表的头尾链接
+        first.prev = null;
+        last.next  = null;
+        linkChain(null, first, last, count);
+    }
+
     public final boolean contains(Object o) {
+        HashMap<Object, Object> map = index;
+        if (map != null) {
+            synchronized (this) {
+                return map.containsKey(o);
+            }
+        }
+        if (poolCapacity > 0) {
+            synchronized (this) {
+                return containsItem(o);
+            }
+        }
+        return containsItem(o);
+    }
+
+    private boolean containsItem(Object o) {
         if (size == 1) {
             return check(head.item, o);
         } else {
@@ -321,13 +727,12 @@ public class LinkedList<E> implements List<E> {
     }
 
     public final synchronized void clear() {
-        tail.next = null;
         // 删除所有节点
-        while (head.next != null) {
-            head = head.next;
-            size--;
-            modCount++;
-        }
+        head = tail = null;
+        size = 0;
+        modCount++;
+        if (index != null)
+            index.clear();
     }
 
     public final boolean equals(Object o) {
@@ -364,6 +769,16 @@ public class LinkedList<E> implements List<E> {
     }
 
     public final E get(int index) {
+        // 开启节点池时删除的节点会被复用，在锁中查找，避免访问到已回收的节点。
+        if (poolCapacity > 0) {
+            synchronized (this) {
+                return getItem(index);
+            }
+        }
+        return getItem(index);
+    }
+
+    private E getItem(int index) {
         rangeCheck(index);
         Node<E> node = current.search(index);
         return node != null ? node.item : null;
@@ -393,6 +808,17 @@ public class LinkedList<E> implements List<E> {
     }
 
     public final int indexOf(Object o) {
+        if (poolCapacity > 0) {
+            synchronized (this) {
+                return indexOfItem(o);
+            }
+        }
+        return indexOfItem(o);
+    }
+
+    private int indexOfItem(Object o) {
+        if (!mayContain(o))
+            return -1;
         Node<E> curr = head;
         for (int i = 0; i < size; i++) {
             if (check(curr.item, o))
@@ -407,11 +833,22 @@ public class LinkedList<E> implements List<E> {
     }
 
     public final int lastIndexOf(Object o) {
+        if (poolCapacity > 0) {
+            synchronized (this) {
+                return lastIndexOfItem(o);
+            }
+        }
+        return lastIndexOfItem(o);
+    }
+
+    private int lastIndexOfItem(Object o) {
+        if (!mayContain(o))
+            return -1;
         Node<E> curr = tail;
-        for (int i = size - 1; i >= 0; i++) {
+        for (int i = size - 1; i >= 0; i--) {
             if (check(curr.item, o))
                 return i;
-            curr = curr.next;
+            curr = curr.prev;
         }
         return -1;
     }
@@ -426,47 +863,264 @@ public class LinkedList<E> implements List<E> {
 
     public final synchronized E remove(int index) {
         rangeCheck(index);
+        Node<E> curr;
         if (index == 0) {
-            return removeHead().item;
+            curr = removeHead();
         } else if (index == size - 1) {
-            return removeTail().item;
+            curr = removeTail();
         } else {
-            Node<E> curr = search(index);
+            curr = search(index);
             removeNode(curr);
-            return curr != null ? curr.item : null;
+            // 后一节点移到了被删除节点的位置
+            finger = new Finger<>(curr.next, index, modCount);
         }
+        E value = curr.item;
+        recycle(curr);
+        return value;
     }
 
+    @SuppressWarnings({"unchecked"})
     public final synchronized boolean remove(Object o) {
+        if (index != null) {
+            // 只有一个相同元素时直接删除对应节点，否则查找第一个
+            Object found = index.get(o);
+            if (found == null)
+                return false;
+            recycle(removeNode(found instanceof Node ? (Node<E>) found : current.search(o)));
+            return true;
+        }
         if (size <= 0) {
             return false;
         } else if (size == 1) {
-            if (check(head.item, o))
-                return removeHead() != null;
-            else
+            if (!check(head.item, o))
                 return false;
+            recycle(removeHead());
+            return true;
         } else {
             Node<E> curr = current.search(o);
-            removeNode(curr);
-            return curr != null && curr.item != null;
+            if (curr == null)
+                return false;
+            recycle(removeNode(curr));
+            return true;
         }
     }
 
+    @SuppressWarnings({"unchecked"})
     public final synchronized boolean removeAll(Collection<?> c) {
-        // 遍历传入的集合，如果该链表中不含有指定集合中的某一个元素，则返回 false。
-        for (Object o : c)
-            remove(o);
-        return !current.isEmpty();
+        if (index != null) {
+            // 通过元素索引直接删除所有相同元素的节点
+            boolean modified = false;
+            for (Object o : c) {
+                Object found = index.get(o);
+                if (found instanceof Node) {
+                    recycle(removeNode((Node<E>) found));
+                    modified = true;
+                } else if (found != null) {
+                    for (Node<E> node : new ArrayList<>((ArrayList<Node<E>>) found))
+                        recycle(removeNode(node));
+                    modified = true;
+                }
+            }
+            return modified;
+        }
+        // 一次遍历删除，参数集合较大时先转换为 HashSet。
+        return removeMatching(lookup(c)::contains) > 0;
     }
 
     public final synchronized boolean retainAll(Collection<?> c) {
+        Collection<?> lookup = lookup(c);
+        return removeMatching(e -> !lookup.contains(e)) > 0;
+    }
+
+    /**
+     * 删除满足条件的元素，一次遍历完成，操作记录数只增加一次。
+     * @param filter 判断条件
+     * @return 返回 true 表示删除了元素。
+     */
+    public final synchronized boolean removeIf(Predicate<? super E> filter) {
+        if (filter == null)
+            throw new NullPointerException();
+        return removeMatching(filter) > 0;
+    }
+
+    /**
+     * 排序。使用自底向上的归并排序直接重新链接节点，不复制元素，排序是稳定的，时间复杂度 O(n log n)。
+     * 比较器抛出异常时链表保持排序前的顺序。元素索引不受影响。
+     * @param c 比较器，为 null 时按元素的自然顺序排序。
+     */
+    public final synchronized void sort(Comparator<? super E> c) {
+        Comparator<? super E> cmp = comparator(c);
+        if (parent != null) {
+            sortItems(cmp);
+            return;
+        }
+        if (size < 2)
+            return;
+        try {
+            relink(sortChain(head, size, cmp));
+        } catch (Throwable e) {
+            restore();
+            throw e;
+        }
+    }
+
+    /**
+     * 并行排序。将链表分为若干段，在 {@link ForkJoinPool#commonPool()} 中分别排序后逐对合并，结果与 {@link #sort(Comparator)} 相同。
+     * 链表较短或公共线程池只有一个线程时按顺序排序。比较器会被多个线程同时调用。
+     * @param c 比较器，为 null 时按元素的自然顺序排序。
+     */
+    public final synchronized void parallelSort(Comparator<? super E> c) {
+        int parallelism = ForkJoinPool.getCommonPoolParallelism();
+        int parts = Math.min(parallelism * 4, size / PARALLEL_SORT_GRANULARITY);
+        if (parent != null || parallelism < 2 || parts < 2) {
+            sort(c);
+            return;
+        }
+        Comparator<? super E> cmp = comparator(c);
+        @SuppressWarnings({"rawtypes", "unchecked"})
+        Node<E>[] segments = new Node[parts];
+        int[] counts = new int[parts];
         Node<E> curr = head;
-        for (int i = 0; i < size; i++) {
-            if (!c.contains(curr.item))
-                current.removeNode(curr);
-            curr = curr.next;
+        for (int i = 0; i < parts; i++) {
+            segments[i] = curr;
+            counts[i]   = size / parts + (i < size % parts ? 1 : 0);
+            for (int n = 0; n < counts[i]; n++)
+                curr = curr.next;
+        }
+        try {
+            relink(ForkJoinPool.commonPool().invoke(new SortTask<>(segments, counts, 0, parts, cmp)));
+        } catch (Throwable e) {
+            restore();
+            throw e;
+        }
+    }
+
+    /**
+     * 将全部元素写入指定输出。
+     * <p>
+     *     格式为元素数，随后依次为每个元素的长度和编码内容，长度为 -1 表示 null 元素，整数均为大端字节序。
+     *     元素按块编码到缓冲区后整块写出，不复制为数组；写出期间持有链表的锁。
+     * </p>
+     * @param out   指定输出
+     * @param codec 元素编码
+     * @throws IOException 写入失败
+     */
+    public final synchronized void writeTo(DataOutput out, ElementCodec<? super E> codec) throws IOException {
+        checkForComodification();
+        ByteBuffer block = ByteBuffer.allocate(STREAM_BLOCK_SIZE);
+        block.putInt(size);
+        Node<E> curr = head;
+        for (int i = 0; i < size; i++, curr = curr.next) {
+            while (!encode(curr.item, codec, block)) {
+                // 缓冲区中有内容时先写出，否则单个元素超过缓冲区大小，换用更大的缓冲区。
+                if (block.position() > 0) {
+                    out.write(block.array(), 0, block.position());
+                    block.clear();
+                } else {
+                    block = ByteBuffer.allocate(block.capacity() * 2);
+                }
+            }
         }
-        return !current.isEmpty();
+        out.write(block.array(), 0, block.position());
+    }
+
+    /**
+     * 将全部元素写入指定缓冲区，格式与 {@link #writeTo(DataOutput, ElementCodec)} 相同，缓冲区需使用大端字节序。
+     * @param buffer 指定缓冲区，从当前位置开始写入。
+     * @param codec  元素编码
+     * @throws BufferOverflowException 缓冲区剩余空间不足，缓冲区位置恢复为写入前的位置。
+     */
+    public final synchronized void writeTo(ByteBuffer buffer, ElementCodec<? super E> codec) {
+        checkForComodification();
+        int start = buffer.position();
+        try {
+            buffer.putInt(size);
+            Node<E> curr = head;
+            for (int i = 0; i < size; i++, curr = curr.next)
+                if (!encode(curr.item, codec, buffer))
+                    throw new BufferOverflowException();
+        } catch (BufferOverflowException e) {
+            buffer.position(start);
+            throw e;
+        }
+    }
+
+    /**
+     * 从指定输入读取由 {@link #writeTo(DataOutput, ElementCodec)} 写入的元素，按顺序添加到末尾。
+     * 读取时先将全部节点链接成串，读取完成后一次性接到末尾；读取失败时链表不变。
+     * @param in    指定输入
+     * @param codec 元素编码
+     * @return 返回读取的元素数。
+     * @throws IOException 读取失败或数据格式错误
+     */
+    public final int readFrom(DataInput in, ElementCodec<? extends E> codec) throws IOException {
+        int count = checkLength(in.readInt(), 0);
+        byte[] bytes = new byte[256];
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        Node<E> first = null, last = null;
+        for (int i = 0; i < count; i++) {
+            int length = checkLength(in.readInt(), -1);
+            E element = null;
+            if (length >= 0) {
+                if (length > bytes.length) {
+                    bytes  = new byte[Math.max(length, bytes.length * 2)];
+                    buffer = ByteBuffer.wrap(bytes);
+                }
+                in.readFully(bytes, 0, length);
+                buffer.clear();
+                buffer.limit(length);
+                element = codec.decode(buffer);
+            }
+            Node<E> node = new Node<>(element);
+            if (last == null) {
+                first = node;
+            } else {
+                node.prev = last;
+                last.next = node;
+            }
+            last = node;
+        }
+        return linkRead(first, last, count);
+    }
+
+    /**
+     * 从指定缓冲区读取由 {@link #writeTo(ByteBuffer, ElementCodec)} 写入的元素，按顺序添加到末尾。
+     * 读取完成后缓冲区位置移动到数据末尾；读取失败时链表不变。
+     * @param buffer 指定缓冲区，从当前位置开始读取。
+     * @param codec  元素编码
+     * @return 返回读取的元素数。
+     * @throws StreamCorruptedException 数据格式错误
+     */
+    public final int readFrom(ByteBuffer buffer, ElementCodec<? extends E> codec) throws StreamCorruptedException {
+        int count = checkLength(buffer.getInt(), 0);
+        int limit = buffer.limit();
+        Node<E> first = null, last = null;
+        try {
+            for (int i = 0; i < count; i++) {
+                int length = checkLength(buffer.getInt(), -1);
+                E element = null;
+                if (length >= 0) {
+                    int end = buffer.position() + length;
+                    if (end > limit || end < 0)
+                        throw new StreamCorruptedException("Illegal length: " + length);
+                    buffer.limit(end);
+                    element = codec.decode(buffer);
+                    buffer.limit(limit);
+                    buffer.position(end);
+                }
+                Node<E> node = new Node<>(element);
+                if (last == null) {
+                    first = node;
+                } else {
+                    node.prev = last;
+                    last.next = node;
+                }
+                last = node;
+            }
+        } finally {
+            buffer.limit(limit);
+        }
+        return linkRead(first, last, count);
     }
 
     public final synchronized E set(int index, E element) {
@@ -476,8 +1130,14 @@ public class LinkedList<E> implements List<E> {
         E value = null;
         if (curr != null) {
             value = curr.item;
-            curr.item = element;
+            LinkedList<E> root = root();
+            synchronized (root) {
+                root.unindex(curr);
+                curr.item = element;
+                root.index(curr);
+            }
             current.modCount++;
+            finger = new Finger<>(curr, index, modCount);
         }
         return value;
     }
@@ -486,11 +1146,94 @@ public class LinkedList<E> implements List<E> {
         return size;
     }
 
-    /*public final Spliterator<E> spliterator() {
-        return new ListSpliterator<>(current, 0, -1, modCount);
-    }*/
+    /**
+     * 开启或关闭元素索引。开启后链表另外维护元素到节点的哈希映射，
+     * {@link #contains(Object)}、{@link #remove(Object)} 和 {@link #removeAll(Collection)} 不再需要遍历链表，
+     * 不含指定元素时 {@link #indexOf(Object)}、{@link #lastIndexOf(Object)} 也直接返回。
+     * 每个节点额外占用一个哈希表项，元素的 hashCode 在保存期间不能改变。
+     * @param indexed 取值：true 表示开启。
+     */
+    public final synchronized void setIndexed(boolean indexed) {
+        if (!indexed) {
+            index = null;
+            return;
+        }
+        if (index != null)
+            return;
+        index = new HashMap<>(Math.max(16, (int) (size / 0.75f) + 1));
+        Node<E> curr = head;
+        for (int i = 0; i < size; i++) {
+            index(curr);
+            curr = curr.next;
+        }
+    }
+
+    /**
+     * 设置节点池容量。开启后删除的节点放入池中，添加元素时优先复用，
+     * 在队列式的反复添加、删除中不再产生新的节点对象。通过迭代器删除的节点不回收。
+     * <p>
+     *     节点被回收后可能已被复用，因此开启节点池时：迭代器、可分割迭代器在链表结构发生变化后
+     *     立即抛出 {@link ConcurrentModificationException}，不再继续访问原来的节点；
+     *     {@link #get(int)}、{@link #contains(Object)}、{@link #indexOf(Object)}、{@link #lastIndexOf(Object)}
+     *     改为在链表的锁中执行。其他线程修改链表时仍在遍历的迭代器不保证能检测到变化，遍历需要与修改互斥。
+     * </p>
+     * @param capacity 池中最多保存的节点数，为 0 时关闭并清空节点池。
+     */
+    public final synchronized void setNodePool(int capacity) {
+        if (capacity < 0)
+            throw new IllegalArgumentException("Illegal capacity: " + capacity);
+        poolCapacity = capacity;
+        while (poolSize > capacity) {
+            pool = pool.next;
+            poolSize--;
+        }
+    }
+
+    public final synchronized int getNodePoolSize() {
+        return poolSize;
+    }
+
+    /**
+     * 获取从节点池中复用节点的次数。
+     * @return 返回次数。
+     */
+    public final long getNodePoolHits() {
+        return poolHits;
+    }
+
+    /**
+     * 获取开启节点池后，池中没有节点而新建节点的次数。
+     * @return 返回次数。
+     */
+    public final long getNodePoolMisses() {
+        return poolMisses;
+    }
+
+    public final boolean isLoop() {
+        return loop;
+    }
+
+    public final boolean isIndexed() {
+        return index != null;
+    }
+
+    // 开启元素索引时，判断链表是否可能含有指定元素。
+    private boolean mayContain(Object o) {
+        HashMap<Object, Object> map = index;
+        if (map == null)
+            return true;
+        synchronized (this) {
+            return map.containsKey(o);
+        }
+    }
+
+    public final Spliterator<E> spliterator() {
+        return new ListSpliterator(null, 0, -1, 0L);
+    }
 
     public final List<E> subList(int fromIndex, int toIndex) {
+        if (fromIndex < 0 || toIndex > size || fromIndex > toIndex)
+            throw new IndexOutOfBoundsException("Range out of 0 - " + size + " (" + fromIndex + ", " + toIndex + ")");
         return new LinkedList<>(current, 0, fromIndex, toIndex);
     }
 
@@ -559,23 +1302,78 @@ public class LinkedList<E> implements List<E> {
         }
     }
 
+    /**
+     * 索引访问位置，记录节点及其索引。链表结构发生变化后（操作记录数不同）失效。
+     */
+    private final static class Finger<E> {
+        final Node<E> node;
+        final int     index;
+        final long    modCount;
+
+        Finger(Node<E> node, int index, long modCount) {
+            this.node     = node;
+            this.index    = index;
+            this.modCount = modCount;
+        }
+    }
+
+    /**
+     * 并行排序任务，分别排序 [from, to) 范围内的各段节点后合并。
+     */
+    private final static class SortTask<E> extends RecursiveTask<Node<E>> {
+        /** serialVersionUID */
+        private static final long serialVersionUID = -3917845120556342207L;
+
+        final Node<E>[]             segments;
+        final int[]                 counts;
+        final int                   from;
+        final int                   to;
+        final Comparator<? super E> c;
+
+        SortTask(Node<E>[] segments, int[] counts, int from, int to, Comparator<? super E> c) {
+            this.segments = segments;
+            this.counts   = counts;
+            this.from     = from;
+            this.to       = to;
+            this.c        = c;
+        }
+
+        protected Node<E> compute() {
+            if (to - from == 1)
+                return sortChain(segments[from], counts[from], c);
+            int mid = (from + to) >>> 1;
+            SortTask<E> left = new SortTask<>(segments, counts, from, mid, c);
+            left.fork();
+            Node<E> right = new SortTask<>(segments, counts, mid, to, c).compute();
+            return mergeChain(left.join(), right, c);
+        }
+    }
+
     /**
      * 迭代器
      */
     private class Itr implements Iterator<E> {
         int cursor  = 0;
         Node<E> curr;
+        long expectedModCount = current.modCount;
 
         Itr() {
             curr = current.head;
         }
 
+        // 开启节点池时，链表结构变化后持有的节点可能已被回收复用，此时快速失败。
+        final void checkForRecycle() {
+            if (poolCapacity > 0 && current.modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+        }
+
         public boolean hasNext() {
             //System.out.println("LinkedList.Itr.hasNext.cursor: " + cursor + "/" + current.size);
             return cursor < current.size && cursor >= 0;
         }
 
         public E next() {
+            checkForRecycle();
             E next = curr.item;
             curr = curr.next;
             cursor++;
@@ -583,8 +1381,10 @@ public class LinkedList<E> implements List<E> {
         }
 
         public void remove() {
+            checkForRecycle();
             curr = removeNode(curr).next;
             cursor--; // 减少cursor
+            expectedModCount = current.modCount;
         }
     }
 
@@ -593,14 +1393,13 @@ public class LinkedList<E> implements List<E> {
      */
     private final class ListItr extends Itr implements ListIterator<E> {
         ListItr(int index) {
-            rangeCheck(index);
+            positionCheck(index);
             if (index >= current.size) {
                 curr   = current.tail;
                 cursor = current.size;
             } else {
-                for (; cursor < index; cursor++) {
-                    curr = curr.next;
-                }
+                curr   = current.search(index);
+                cursor = index;
             }
         }
 
@@ -610,6 +1409,7 @@ public class LinkedList<E> implements List<E> {
         }
 
         public E previous() {
+            checkForRecycle();
             E prev = curr.item;
             curr = curr.prev;
             cursor--;
@@ -626,80 +1426,117 @@ public class LinkedList<E> implements List<E> {
 
 
         public void set(E e) {
-            curr.item = e;
+            checkForRecycle();
+            LinkedList<E> root = root();
+            synchronized (root) {
+                root.unindex(curr);
+                curr.item = e;
+                root.index(curr);
+            }
         }
 
         public void add(E e) {
+            checkForRecycle();
             insertNodeA(curr, new Node<>(e));
+            expectedModCount = current.modCount;
         }
     }
 
-    /*
-    static int count = 0;
-    private final class ListSpliterator<E> implements Spliterator<E> {
-
-        LinkedList<E> list;
-        long modCount;
-        int fence;
-        int index;
-        int origin;
+    /**
+     * 可分割迭代器
+     * <p>
+     *     第一次使用时才绑定链表的头部节点、长度和操作记录数。分割时从当前节点向后移动到中间位置，
+     *     返回前半部分，自身保留后半部分，因此每次分割得到的两部分长度相同。
+     *     遍历结束后如果链表的操作记录数发生改变，则抛出 {@link ConcurrentModificationException}。
+     * </p>
+     */
+    private final class ListSpliterator implements Spliterator<E> {
+        /** 下一个待访问的节点 */
         Node<E> curr;
+        /** 下一个待访问节点的索引 */
+        int     index;
+        /** 结束索引（不含），小于 0 表示尚未绑定。 */
+        int     fence;
+        long    expectedModCount;
+
+        ListSpliterator(Node<E> curr, int index, int fence, long expectedModCount) {
+            this.curr             = curr;
+            this.index            = index;
+            this.fence            = fence;
+            this.expectedModCount = expectedModCount;
+        }
 
-
-        ListSpliterator(LinkedList<E> list, int origin, int fence, long modCount) {
-            this.list     = list;
-            this.origin   = origin;
-            this.index    = origin;
-            this.fence    = (fence < 0  || fence > current.size) ? current.size : fence;
-            this.modCount = (fence < 0  || fence > current.size) ? list.modCount : modCount;
-            this.curr     = list.search(origin);
-            System.out.println("LinkedList.ListSpliterator.init: (" + count++ + ") origin: " + origin + ", fence: " + fence);
+        private int getFence() {
+            int hi = fence;
+            if (hi < 0) {
+                synchronized (current) {
+                    expectedModCount = current.modCount;
+                    curr             = current.head;
+                    hi = fence       = current.size;
+                }
+            }
+            return hi;
         }
 
         public boolean tryAdvance(Consumer<? super E> action) {
             if (action == null)
                 throw new NullPointerException();
-            if (index < fence) {
-                index++;
-                curr = curr.next;
-                action.accept(curr.item);
-                if (list.modCount != ListSpliterator.this.modCount)
-                    throw new ConcurrentModificationException();
-                return true;
-            }
-            return false;
+            if (index >= getFence())
+                return false;
+            // 开启节点池时先检查，避免访问已回收的节点
+            if (poolCapacity > 0 && current.modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+            E item = curr.item;
+            curr = curr.next;
+            index++;
+            action.accept(item);
+            if (current.modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+            return true;
         }
 
-        public ListSpliterator<E> trySplit() {
-            int hi = fence, lo = index, mid = (lo + hi) >>> 1;
-            return (lo >= mid) ? null : // divide range in half unless too small
-                    new ListSpliterator<E>(list, lo, index = mid, modCount);
+        public ListSpliterator trySplit() {
+            int hi = getFence(), lo = index, mid = (lo + hi) >>> 1;
+            if (lo >= mid)
+                return null;
+            // 移动到中间节点
+            Node<E> node = curr;
+            for (int i = lo; i < mid; i++)
+                node = node.next;
+            if (current.modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+            ListSpliterator prefix = new ListSpliterator(curr, lo, mid, expectedModCount);
+            curr  = node;
+            index = mid;
+            return prefix;
         }
 
         public void forEachRemaining(Consumer<? super E> action) {
             if (action == null)
                 throw new NullPointerException();
-            // 记录操作数
-            long mc = list.modCount;
-            if (index >= 0 && fence <= list.size) {
-                for (;index < fence; index++) {
-                    action.accept(curr.item);
-                    curr = curr.next;
-                }
+            int hi = getFence();
+            Node<E> node = curr;
+            boolean pooled = poolCapacity > 0;
+            for (int i = index; i < hi && node != null; i++) {
+                action.accept(node.item);
+                if (pooled && current.modCount != expectedModCount)
+                    throw new ConcurrentModificationException();
+                node = node.next;
             }
+            curr  = node;
+            index = hi;
             // 如果期间链表操作数改变，则抛出异常。
-            if (list.modCount != mc)
+            if (current.modCount != expectedModCount)
                 throw new ConcurrentModificationException();
         }
 
         public long estimateSize() {
-            return (long) (fence - index);
+            return (long) (getFence() - index);
         }
 
         public int characteristics() {
             return Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED;
         }
-
-    }*/
+    }
 
 }
@@ -0,0 +1,530 @@
+package com.liuyang.util;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.AbstractCollection;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * 堆外链表
+ * <p>
+ *     元素经 {@link ElementCodec} 编码后保存在堆外内存中，堆上只保留少量缓冲区对象，元素数量再多也不会增加垃圾回收的负担。
+ *     适用于数据量很大的队列：在两端添加、取出，按顺序遍历。
+ * </p>
+ * <p>
+ *     节点为 16 字节的记录（上一节点、下一节点、数据页、页内偏移），按 16384 个一组保存在堆外的节点块中，
+ *     链接为 int 类型的节点编号，删除的节点编号放入空闲链表复用。
+ *     元素内容依次追加到 1MB（可指定）的堆外数据页中，每条内容前有 4 字节长度。
+ *     数据页中的元素全部删除后释放该页（保留少量空页复用），因此按先进先出使用时占用的内存随队列长度增减。
+ *     链表为空时只保留第一个节点块。
+ *     超过数据页长度的元素单独使用一个数据页。
+ * </p>
+ * <p>
+ *     不允许 null 元素。每次读取都会重新解码，返回的是新的对象。
+ * </p>
+ * @param <E>
+ *
+ * @author liuyang
+ * @version 1.0.1
+ */
+public class OffHeapLinkedList<E> extends AbstractCollection<E> implements Deque<E> {
+    /** 默认数据页长度：1MB */
+    public final static int DEFAULT_PAGE_SIZE = 1048576;
+
+    private final static int NIL            = -1;
+    private final static int NODE_BYTES     = 16;
+    private final static int SLAB_SHIFT     = 14;
+    private final static int SLAB_NODES     = 1 << SLAB_SHIFT;
+    private final static int SLAB_MASK      = SLAB_NODES - 1;
+    private final static int PREV_AT        = 0;
+    private final static int NEXT_AT        = 4;
+    private final static int PAGE_AT        = 8;
+    private final static int OFFSET_AT      = 12;
+    private final static int MAX_FREE_PAGES = 2;
+
+    private final ElementCodec<E>   codec;
+    private final int               pageSize;
+    private ByteBuffer[]            slabs      = new ByteBuffer[0];
+    private Page[]                  pages      = new Page[0];
+    private final ArrayDeque<Page>  freePages  = new ArrayDeque<>();
+    private Page                    current;
+    private int                     head       = NIL;
+    private int                     tail       = NIL;
+    /** 空闲节点链表，通过节点的下一节点链接。 */
+    private int                     freeNode   = NIL;
+    /** 已使用过的节点编号数 */
+    private int                     usedNodes  = 0;
+    private int                     size       = 0;
+    private int                     modCount   = 0;
+    private long                    pageBytes  = 0;
+
+    /**
+     * 创建堆外链表，数据页长度为 {@link #DEFAULT_PAGE_SIZE}。
+     * @param codec 元素编码
+     */
+    public OffHeapLinkedList(ElementCodec<E> codec) {
+        this(codec, DEFAULT_PAGE_SIZE);
+    }
+
+    /**
+     * 创建堆外链表
+     * @param codec    元素编码
+     * @param pageSize 数据页长度，单位：字节。
+     */
+    public OffHeapLinkedList(ElementCodec<E> codec, int pageSize) {
+        if (codec == null)
+            throw new NullPointerException();
+        if (pageSize < 64)
+            throw new IllegalArgumentException("Illegal page size: " + pageSize);
+        this.codec    = codec;
+        this.pageSize = pageSize;
+    }
+
+    //==================================================================================================================
+    // 节点与数据页
+    //==================================================================================================================
+
+    private int getInt(int node, int field) {
+        return slabs[node >>> SLAB_SHIFT].getInt((node & SLAB_MASK) * NODE_BYTES + field);
+    }
+
+    private void putInt(int node, int field, int value) {
+        slabs[node >>> SLAB_SHIFT].putInt((node & SLAB_MASK) * NODE_BYTES + field, value);
+    }
+
+    // 分配节点编号，优先复用空闲节点。
+    private int allocateNode() {
+        int node = freeNode;
+        if (node != NIL) {
+            freeNode = getInt(node, NEXT_AT);
+            return node;
+        }
+        node = usedNodes++;
+        int slab = node >>> SLAB_SHIFT;
+        if (slab == slabs.length) {
+            slabs = Arrays.copyOf(slabs, slab + 1);
+            slabs[slab] = ByteBuffer.allocateDirect(SLAB_NODES * NODE_BYTES);
+        }
+        return node;
+    }
+
+    // 分配数据页，标准长度的页优先从空页中复用。
+    private Page allocatePage(int capacity) {
+        Page page = capacity == pageSize ? freePages.poll() : null;
+        if (page == null) {
+            page = new Page(ByteBuffer.allocateDirect(capacity));
+            pageBytes += capacity;
+        }
+        int id = 0;
+        while (id < pages.length && pages[id] != null)
+            id++;
+        if (id == pages.length)
+            pages = Arrays.copyOf(pages, Math.max(4, id << 1));
+        pages[id] = page;
+        page.id   = id;
+        return page;
+    }
+
+    private void releasePage(Page page) {
+        pages[page.id] = null;
+        if (page.buffer.capacity() == pageSize && freePages.size() < MAX_FREE_PAGES) {
+            page.used = 0;
+            page.live = 0;
+            freePages.push(page);
+        } else {
+            pageBytes -= page.buffer.capacity();
+        }
+    }
+
+    // 在数据页中从指定位置开始编码，空间不足时返回 false。
+    private boolean encode(Page page, E element) {
+        int start = page.used;
+        if (start + 4 > page.buffer.capacity())
+            return false;
+        ByteBuffer view = page.view;
+        view.limit(view.capacity()).position(start + 4);
+        try {
+            codec.encode(element, view);
+        } catch (BufferOverflowException e) {
+            return false;
+        }
+        page.buffer.putInt(start, view.position() - start - 4);
+        page.last = start;
+        page.used = view.position();
+        page.live++;
+        return true;
+    }
+
+    // 保存元素内容，返回节点编号。
+    private int store(E element) {
+        if (element == null)
+            throw new NullPointerException();
+        Page page = current;
+        if (page == null || !encode(page, element)) {
+            if (page != null && page.live == 0)
+                releasePage(page);
+            page = current = allocatePage(pageSize);
+            if (!encode(page, element)) {
+                // 超过数据页长度的元素单独保存
+                ByteBuffer large = encodeLarge(element);
+                Page single = allocatePage(large.remaining() + 4);
+                single.buffer.putInt(0, large.remaining());
+                single.view.clear().position(4);
+                single.view.put(large);
+                single.used = single.buffer.capacity();
+                single.last = 0;
+                single.live = 1;
+                page = single;
+            }
+        }
+        int node = allocateNode();
+        putInt(node, PAGE_AT, page.id);
+        putInt(node, OFFSET_AT, page.last);
+        return node;
+    }
+
+    // 在堆上编码超过数据页长度的元素，缓冲区不足时加倍。
+    private ByteBuffer encodeLarge(E element) {
+        for (int capacity = pageSize << 1; ; capacity <<= 1) {
+            ByteBuffer buffer = ByteBuffer.allocate(capacity);
+            try {
+                codec.encode(element, buffer);
+                buffer.flip();
+                return buffer;
+            } catch (BufferOverflowException e) {
+                if (capacity > Integer.MAX_VALUE >> 1)
+                    throw e;
+            }
+        }
+    }
+
+    private E load(int node) {
+        Page page = pages[getInt(node, PAGE_AT)];
+        int offset = getInt(node, OFFSET_AT);
+        int length = page.buffer.getInt(offset);
+        ByteBuffer view = page.view;
+        view.limit(offset + 4 + length).position(offset + 4);
+        return codec.decode(view);
+    }
+
+    // 释放节点及其内容
+    private void free(int node) {
+        Page page = pages[getInt(node, PAGE_AT)];
+        if (--page.live == 0) {
+            if (page == current)
+                page.used = 0;
+            else
+                releasePage(page);
+        }
+        putInt(node, NEXT_AT, freeNode);
+        freeNode = node;
+    }
+
+    // 链表为空时只保留第一个节点块，节点编号重新开始分配。
+    private void trim() {
+        if (slabs.length > 1)
+            slabs = Arrays.copyOf(slabs, 1);
+        freeNode  = NIL;
+        usedNodes = 0;
+    }
+
+    //==================================================================================================================
+    // 链表核心功能
+    //==================================================================================================================
+
+    private void linkFirst(E element) {
+        int node = store(element);
+        putInt(node, PREV_AT, NIL);
+        putInt(node, NEXT_AT, head);
+        if (head == NIL)
+            tail = node;
+        else
+            putInt(head, PREV_AT, node);
+        head = node;
+        size++;
+        modCount++;
+    }
+
+    private void linkLast(E element) {
+        int node = store(element);
+        putInt(node, PREV_AT, tail);
+        putInt(node, NEXT_AT, NIL);
+        if (tail == NIL)
+            head = node;
+        else
+            putInt(tail, NEXT_AT, node);
+        tail = node;
+        size++;
+        modCount++;
+    }
+
+    // 删除节点，返回删除的元素。
+    private E unlink(int node) {
+        E element = load(node);
+        int prev = getInt(node, PREV_AT), next = getInt(node, NEXT_AT);
+        if (prev == NIL)
+            head = next;
+        else
+            putInt(prev, NEXT_AT, next);
+        if (next == NIL)
+            tail = prev;
+        else
+            putInt(next, PREV_AT, prev);
+        free(node);
+        size--;
+        modCount++;
+        if (size == 0)
+            trim();
+        return element;
+    }
+
+    //==================================================================================================================
+    // 链表接口功能
+    //==================================================================================================================
+
+    public synchronized void addFirst(E element) {
+        linkFirst(element);
+    }
+
+    public synchronized void addLast(E element) {
+        linkLast(element);
+    }
+
+    public boolean offerFirst(E element) {
+        addFirst(element);
+        return true;
+    }
+
+    public boolean offerLast(E element) {
+        addLast(element);
+        return true;
+    }
+
+    public E removeFirst() {
+        E element = pollFirst();
+        if (element == null)
+            throw new NoSuchElementException();
+        return element;
+    }
+
+    public E removeLast() {
+        E element = pollLast();
+        if (element == null)
+            throw new NoSuchElementException();
+        return element;
+    }
+
+    public synchronized E pollFirst() {
+        return head == NIL ? null : unlink(head);
+    }
+
+    public synchronized E pollLast() {
+        return tail == NIL ? null : unlink(tail);
+    }
+
+    public E getFirst() {
+        E element = peekFirst();
+        if (element == null)
+            throw new NoSuchElementException();
+        return element;
+    }
+
+    public E getLast() {
+        E element = peekLast();
+        if (element == null)
+            throw new NoSuchElementException();
+        return element;
+    }
+
+    public synchronized E peekFirst() {
+        return head == NIL ? null : load(head);
+    }
+
+    public synchronized E peekLast() {
+        return tail == NIL ? null : load(tail);
+    }
+
+    public synchronized boolean removeFirstOccurrence(Object o) {
+        if (o == null)
+            return false;
+        for (int node = head; node != NIL; node = getInt(node, NEXT_AT)) {
+            if (o.equals(load(node))) {
+                unlink(node);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public synchronized boolean removeLastOccurrence(Object o) {
+        if (o == null)
+            return false;
+        for (int node = tail; node != NIL; node = getInt(node, PREV_AT)) {
+            if (o.equals(load(node))) {
+                unlink(node);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean add(E element) {
+        addLast(element);
+        return true;
+    }
+
+    public boolean offer(E element) {
+        addLast(element);
+        return true;
+    }
+
+    public E remove() {
+        return removeFirst();
+    }
+
+    public E poll() {
+        return pollFirst();
+    }
+
+    public E element() {
+        return getFirst();
+    }
+
+    public E peek() {
+        return peekFirst();
+    }
+
+    public void push(E element) {
+        addFirst(element);
+    }
+
+    public E pop() {
+        return removeFirst();
+    }
+
+    public boolean remove(Object o) {
+        return removeFirstOccurrence(o);
+    }
+
+    public synchronized boolean addAll(Collection<? extends E> collection) {
+        for (E element : collection)
+            linkLast(element);
+        return !collection.isEmpty();
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * 清空链表，释放全部数据页和节点块。
+     */
+    public synchronized void clear() {
+        slabs     = new ByteBuffer[0];
+        pages     = new Page[0];
+        freePages.clear();
+        current   = null;
+        head      = tail = freeNode = NIL;
+        usedNodes = 0;
+        size      = 0;
+        pageBytes = 0;
+        modCount++;
+    }
+
+    /**
+     * 获取占用的堆外内存字节数，包括节点块和数据页。
+     * @return 返回字节数。
+     */
+    public synchronized long getOffHeapBytes() {
+        return (long) slabs.length * SLAB_NODES * NODE_BYTES + pageBytes;
+    }
+
+    public Iterator<E> iterator() {
+        return new Itr(true);
+    }
+
+    public Iterator<E> descendingIterator() {
+        return new Itr(false);
+    }
+
+    //==================================================================================================================
+    // 链表内部接口实现
+    //==================================================================================================================
+
+    /**
+     * 数据页
+     */
+    private final static class Page {
+        final ByteBuffer buffer;
+        /** 读写视图，由持有链表锁的线程使用。 */
+        final ByteBuffer view;
+        int              id;
+        /** 已写入的字节数 */
+        int              used;
+        /** 最后一条内容的偏移 */
+        int              last;
+        /** 未删除的元素数 */
+        int              live;
+
+        Page(ByteBuffer buffer) {
+            this.buffer = buffer;
+            this.view   = buffer.duplicate();
+        }
+    }
+
+    /**
+     * 迭代器，每次读取时解码元素。
+     */
+    private final class Itr implements Iterator<E> {
+        final boolean ascending;
+        int           node;
+        int           lastRet = NIL;
+        int           expectedModCount;
+
+        Itr(boolean ascending) {
+            synchronized (OffHeapLinkedList.this) {
+                this.ascending        = ascending;
+                this.node             = ascending ? head : tail;
+                this.expectedModCount = modCount;
+            }
+        }
+
+        public boolean hasNext() {
+            return node != NIL;
+        }
+
+        public E next() {
+            synchronized (OffHeapLinkedList.this) {
+                if (modCount != expectedModCount)
+                    throw new ConcurrentModificationException();
+                if (node == NIL)
+                    throw new NoSuchElementException();
+                lastRet = node;
+                node    = getInt(node, ascending ? NEXT_AT : PREV_AT);
+                return load(lastRet);
+            }
+        }
+
+        public void remove() {
+            synchronized (OffHeapLinkedList.this) {
+                if (lastRet == NIL)
+                    throw new IllegalStateException();
+                if (modCount != expectedModCount)
+                    throw new ConcurrentModificationException();
+                unlink(lastRet);
+                lastRet          = NIL;
+                expectedModCount = modCount;
+            }
+        }
+    }
+}
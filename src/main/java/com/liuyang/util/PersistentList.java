@@ -0,0 +1,417 @@
+package com.liuyang.util;
+
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * 持久化列表
+ * <p>
+ *     不可变的列表，修改方法（{@link #append(Object)}、{@link #prepend(Object)}、{@link #concat(PersistentList)}、
+ *     {@link #insert(int, Object)}、{@link #update(int, Object)}、{@link #delete(int)}）返回新的列表，原列表保持不变，
+ *     新旧列表共享未修改的部分。持有一个列表的引用就是持有一份快照，读取线程可以不加锁、不复制地遍历，
+ *     写入线程通过 volatile 字段或 {@link java.util.concurrent.atomic.AtomicReference} 发布新版本即可。
+ * </p>
+ * <p>
+ *     内部为按高度平衡的绳索树（rope）：叶子节点保存最多 {@link #LEAF_CAPACITY} 个元素的数组，分支节点记录元素数和高度。
+ *     按索引读取、修改、插入、删除都是 O(log n)；两端添加沿边缘路径复制，只复制 O(log n) 个节点和一个叶子数组；
+ *     连接两个列表的开销与两者的高度差成正比。
+ * </p>
+ * <p>
+ *     继承自 {@link java.util.List} 的修改方法不受支持，调用时抛出 {@link UnsupportedOperationException}。
+ * </p>
+ * @param <E>
+ *
+ * @author liuyang
+ * @version 1.0.1
+ */
+public final class PersistentList<E> extends AbstractList<E> {
+    /** 叶子节点的最大元素数 */
+    public final static int LEAF_CAPACITY = 32;
+
+    private final static PersistentList<?> EMPTY = new PersistentList<>(null);
+
+    private final Node root;
+
+    private PersistentList(Node root) {
+        this.root = root;
+    }
+
+    /**
+     * 返回空列表
+     * @param <E> 元素类型
+     * @return 返回空列表。
+     */
+    @SuppressWarnings({"unchecked"})
+    public static <E> PersistentList<E> empty() {
+        return (PersistentList<E>) EMPTY;
+    }
+
+    /**
+     * 按顺序创建包含指定元素的列表
+     * @param elements 指定元素
+     * @param <E>      元素类型
+     * @return 返回新的列表。
+     */
+    @SafeVarargs
+    public static <E> PersistentList<E> of(E... elements) {
+        return create(Arrays.copyOf(elements, elements.length, Object[].class));
+    }
+
+    /**
+     * 按顺序创建包含指定集合中元素的列表
+     * @param collection 指定集合
+     * @param <E>        元素类型
+     * @return 返回新的列表。
+     */
+    @SuppressWarnings({"unchecked"})
+    public static <E> PersistentList<E> from(Collection<? extends E> collection) {
+        if (collection instanceof PersistentList)
+            return (PersistentList<E>) collection;
+        return create(collection.toArray());
+    }
+
+    private static <E> PersistentList<E> create(Object[] values) {
+        if (values.length == 0)
+            return empty();
+        int count = (values.length + LEAF_CAPACITY - 1) / LEAF_CAPACITY;
+        Node[] leaves = new Node[count];
+        for (int i = 0; i < count; i++) {
+            int from = i * LEAF_CAPACITY;
+            int to   = Math.min(from + LEAF_CAPACITY, values.length);
+            Object[] items = new Object[to - from];
+            System.arraycopy(values, from, items, 0, items.length);
+            leaves[i] = new Leaf(items);
+        }
+        return new PersistentList<>(build(leaves, 0, count));
+    }
+
+    // 将连续的叶子节点构造为平衡树
+    private static Node build(Node[] leaves, int from, int to) {
+        if (to - from == 1)
+            return leaves[from];
+        int mid = (from + to) >>> 1;
+        return new Branch(build(leaves, from, mid), build(leaves, mid, to));
+    }
+
+    //==================================================================================================================
+    // 绳索树核心功能
+    //==================================================================================================================
+
+    // 可用索引范围检查
+    private void rangeCheck(int index) {
+        if (index >= size() || index < 0)
+            throw new IndexOutOfBoundsException("Range out of 0 - " + size() + " (" + index + ")");
+    }
+
+    // 插入位置范围检查，允许在末尾位置插入。
+    private void positionCheck(int index) {
+        if (index > size() || index < 0)
+            throw new IndexOutOfBoundsException("Range out of 0 - " + size() + " (" + index + ")");
+    }
+
+    private static int height(Node node) {
+        return node == null ? -1 : node.height;
+    }
+
+    // 连接两棵树，高度差超过 1 时沿较高一侧的边缘下降，然后逐层恢复平衡。
+    private static Node join(Node a, Node b) {
+        if (a == null)
+            return b;
+        if (b == null)
+            return a;
+        if (a.height > b.height + 1) {
+            Branch x = (Branch) a;
+            return balance(x.left, join(x.right, b));
+        }
+        if (b.height > a.height + 1) {
+            Branch x = (Branch) b;
+            return balance(join(a, x.left), x.right);
+        }
+        if (a instanceof Leaf && b instanceof Leaf && a.size + b.size <= LEAF_CAPACITY) {
+            Object[] items = new Object[a.size + b.size];
+            System.arraycopy(((Leaf) a).items, 0, items, 0, a.size);
+            System.arraycopy(((Leaf) b).items, 0, items, a.size, b.size);
+            return new Leaf(items);
+        }
+        return new Branch(a, b);
+    }
+
+    // 以 l、r 为左右子树构造分支节点，高度差为 2 时旋转。
+    private static Node balance(Node l, Node r) {
+        int diff = height(l) - height(r);
+        if (diff > 1) {
+            Branch x = (Branch) l;
+            if (height(x.left) >= height(x.right))
+                return new Branch(x.left, new Branch(x.right, r));
+            Branch y = (Branch) x.right;
+            return new Branch(new Branch(x.left, y.left), new Branch(y.right, r));
+        }
+        if (diff < -1) {
+            Branch x = (Branch) r;
+            if (height(x.right) >= height(x.left))
+                return new Branch(new Branch(l, x.left), x.right);
+            Branch y = (Branch) x.left;
+            return new Branch(new Branch(l, y.left), new Branch(y.right, x.right));
+        }
+        return new Branch(l, r);
+    }
+
+    // 保留前 count 个元素
+    private static Node take(Node node, int count) {
+        if (count <= 0)
+            return null;
+        if (count >= node.size)
+            return node;
+        if (node instanceof Leaf) {
+            Object[] items = new Object[count];
+            System.arraycopy(((Leaf) node).items, 0, items, 0, count);
+            return new Leaf(items);
+        }
+        Branch x = (Branch) node;
+        if (count <= x.left.size)
+            return take(x.left, count);
+        return join(x.left, take(x.right, count - x.left.size));
+    }
+
+    // 跳过前 count 个元素
+    private static Node drop(Node node, int count) {
+        if (count <= 0)
+            return node;
+        if (count >= node.size)
+            return null;
+        if (node instanceof Leaf) {
+            Object[] items = new Object[node.size - count];
+            System.arraycopy(((Leaf) node).items, count, items, 0, items.length);
+            return new Leaf(items);
+        }
+        Branch x = (Branch) node;
+        if (count >= x.left.size)
+            return drop(x.right, count - x.left.size);
+        return join(drop(x.left, count), x.right);
+    }
+
+    // 复制路径并替换指定位置的元素
+    private static Node update(Node node, int index, Object element) {
+        if (node instanceof Leaf) {
+            Object[] items = ((Leaf) node).items.clone();
+            items[index] = element;
+            return new Leaf(items);
+        }
+        Branch x = (Branch) node;
+        if (index < x.left.size)
+            return new Branch(update(x.left, index, element), x.right);
+        return new Branch(x.left, update(x.right, index - x.left.size, element));
+    }
+
+    //==================================================================================================================
+    // 持久化接口功能
+    //==================================================================================================================
+
+    /**
+     * 在末尾添加元素
+     * @param element 元素
+     * @return 返回新的列表。
+     */
+    public PersistentList<E> append(E element) {
+        return new PersistentList<>(join(root, new Leaf(new Object[]{element})));
+    }
+
+    /**
+     * 在开头添加元素
+     * @param element 元素
+     * @return 返回新的列表。
+     */
+    public PersistentList<E> prepend(E element) {
+        return new PersistentList<>(join(new Leaf(new Object[]{element}), root));
+    }
+
+    /**
+     * 在末尾连接指定列表
+     * @param other 指定列表
+     * @return 返回新的列表。
+     */
+    public PersistentList<E> concat(PersistentList<? extends E> other) {
+        if (other.root == null)
+            return this;
+        if (root == null)
+            return new PersistentList<>(other.root);
+        return new PersistentList<>(join(root, other.root));
+    }
+
+    /**
+     * 在指定位置插入元素
+     * @param index   指定位置
+     * @param element 元素
+     * @return 返回新的列表。
+     */
+    public PersistentList<E> insert(int index, E element) {
+        positionCheck(index);
+        Node leaf = new Leaf(new Object[]{element});
+        return new PersistentList<>(join(join(take(root, index), leaf), drop(root, index)));
+    }
+
+    /**
+     * 替换指定位置的元素
+     * @param index   指定位置
+     * @param element 元素
+     * @return 返回新的列表。
+     */
+    public PersistentList<E> update(int index, E element) {
+        rangeCheck(index);
+        return new PersistentList<>(update(root, index, element));
+    }
+
+    /**
+     * 删除指定位置的元素
+     * @param index 指定位置
+     * @return 返回新的列表。
+     */
+    public PersistentList<E> delete(int index) {
+        rangeCheck(index);
+        return new PersistentList<>(join(take(root, index), drop(root, index + 1)));
+    }
+
+    /**
+     * 截取指定范围的元素，与原列表共享节点。
+     * @param fromIndex 开始位置（包含）
+     * @param toIndex   结束位置（不包含）
+     * @return 返回新的列表。
+     */
+    public PersistentList<E> subList(int fromIndex, int toIndex) {
+        if (fromIndex < 0 || toIndex > size() || fromIndex > toIndex)
+            throw new IndexOutOfBoundsException("Range out of 0 - " + size() + " (" + fromIndex + ", " + toIndex + ")");
+        if (fromIndex == 0 && toIndex == size())
+            return this;
+        return new PersistentList<>(drop(take(root, toIndex), fromIndex));
+    }
+
+    //==================================================================================================================
+    // 列表接口功能
+    //==================================================================================================================
+
+    @SuppressWarnings({"unchecked"})
+    public E get(int index) {
+        rangeCheck(index);
+        Node node = root;
+        while (node instanceof Branch) {
+            Branch x = (Branch) node;
+            if (index < x.left.size) {
+                node = x.left;
+            } else {
+                index -= x.left.size;
+                node = x.right;
+            }
+        }
+        return (E) ((Leaf) node).items[index];
+    }
+
+    public int size() {
+        return root == null ? 0 : root.size;
+    }
+
+    public Object[] toArray() {
+        Object[] values = new Object[size()];
+        int count = 0;
+        Itr itr = new Itr();
+        while (itr.nextLeaf()) {
+            System.arraycopy(itr.items, 0, values, count, itr.items.length);
+            count += itr.items.length;
+        }
+        return values;
+    }
+
+    @SuppressWarnings({"unchecked"})
+    public void forEach(Consumer<? super E> action) {
+        Objects.requireNonNull(action);
+        Itr itr = new Itr();
+        while (itr.nextLeaf())
+            for (Object item : itr.items)
+                action.accept((E) item);
+    }
+
+    public Iterator<E> iterator() {
+        return new Itr();
+    }
+
+    //==================================================================================================================
+    // 绳索树内部接口实现
+    //==================================================================================================================
+
+    /**
+     * 树节点，创建后不再修改。
+     */
+    private abstract static class Node {
+        final int size;
+        final int height;
+
+        Node(int size, int height) {
+            this.size   = size;
+            this.height = height;
+        }
+    }
+
+    private final static class Leaf extends Node {
+        final Object[] items;
+
+        Leaf(Object[] items) {
+            super(items.length, 0);
+            this.items = items;
+        }
+    }
+
+    private final static class Branch extends Node {
+        final Node left;
+        final Node right;
+
+        Branch(Node left, Node right) {
+            super(left.size + right.size, Math.max(left.height, right.height) + 1);
+            this.left  = left;
+            this.right = right;
+        }
+    }
+
+    /**
+     * 迭代器，按顺序逐个访问叶子节点。
+     */
+    private final class Itr implements Iterator<E> {
+        final ArrayDeque<Node> stack  = new ArrayDeque<>();
+        Object[]               items  = {};
+        int                    cursor = 0;
+
+        Itr() {
+            if (root != null)
+                stack.push(root);
+        }
+
+        // 移动到下一个叶子节点
+        boolean nextLeaf() {
+            if (stack.isEmpty())
+                return false;
+            Node node = stack.pop();
+            while (node instanceof Branch) {
+                stack.push(((Branch) node).right);
+                node = ((Branch) node).left;
+            }
+            items  = ((Leaf) node).items;
+            cursor = 0;
+            return true;
+        }
+
+        public boolean hasNext() {
+            return cursor < items.length || !stack.isEmpty();
+        }
+
+        @SuppressWarnings({"unchecked"})
+        public E next() {
+            if (cursor >= items.length && !nextLeaf())
+                throw new NoSuchElementException();
+            return (E) items[cursor++];
+        }
+    }
+}
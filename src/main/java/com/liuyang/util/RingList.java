@@ -0,0 +1,209 @@
+package com.liuyang.util;
+
+import java.util.AbstractList;
+import java.util.ConcurrentModificationException;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.function.Consumer;
+
+/**
+ * 环形列表
+ * <p>
+ *     容量固定、数组实现的环形缓冲区，元素按添加顺序排列，索引 0 为最早的元素。
+ *     写满后按 {@link Policy} 覆盖最早的元素或拒绝添加，添加、删除两端元素和按索引访问都是 O(1)，且不产生新的对象。
+ *     适用于只保留最近 N 个样本的滑动窗口。
+ * </p>
+ * <p>
+ *     不支持在中间位置插入元素；删除中间元素时移动距离较近一侧的元素。非线程安全。
+ * </p>
+ * @param <E>
+ *
+ * @author liuyang
+ * @version 1.0.1
+ */
+public class RingList<E> extends AbstractList<E> implements RandomAccess {
+
+    /**
+     * 写满时的处理策略
+     */
+    public enum Policy {
+        /** 覆盖最早的元素 */
+        OVERWRITE,
+        /** 拒绝添加，{@link #add(Object)} 抛出异常，{@link #offer(Object)} 返回 false。 */
+        REJECT
+    }
+
+    private final Object[] items;
+    private final Policy   policy;
+    /** 最早元素的数组下标 */
+    private int            head = 0;
+    private int            size = 0;
+
+    /**
+     * 创建环形列表，写满后覆盖最早的元素。
+     * @param capacity 容量
+     */
+    public RingList(int capacity) {
+        this(capacity, Policy.OVERWRITE);
+    }
+
+    /**
+     * 创建环形列表
+     * @param capacity 容量
+     * @param policy   写满时的处理策略
+     */
+    public RingList(int capacity, Policy policy) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("Illegal capacity: " + capacity);
+        if (policy == null)
+            throw new NullPointerException();
+        this.items  = new Object[capacity];
+        this.policy = policy;
+    }
+
+    //==================================================================================================================
+    // 环形核心功能
+    //==================================================================================================================
+
+    // 可用索引范围检查
+    private void rangeCheck(int index) {
+        if (index >= size || index < 0)
+            throw new IndexOutOfBoundsException("Range out of 0 - " + size + " (" + index + ")");
+    }
+
+    // 将索引转换为数组下标
+    private int slot(int index) {
+        int i = head + index;
+        return i >= items.length ? i - items.length : i;
+    }
+
+    @SuppressWarnings({"unchecked"})
+    private E item(int slot) {
+        return (E) items[slot];
+    }
+
+    //==================================================================================================================
+    // 列表接口功能
+    //==================================================================================================================
+
+    /**
+     * 在末尾添加元素。写满时按策略覆盖最早的元素，或抛出 {@link IllegalStateException}。
+     * @param element 元素
+     * @return 返回 true。
+     */
+    public boolean add(E element) {
+        if (!offer(element))
+            throw new IllegalStateException("Ring is full: " + items.length);
+        return true;
+    }
+
+    /**
+     * 在末尾添加元素。写满时按策略覆盖最早的元素，或返回 false。
+     * @param element 元素
+     * @return 返回 true 表示已添加。
+     */
+    public boolean offer(E element) {
+        if (size == items.length) {
+            if (policy == Policy.REJECT)
+                return false;
+            items[head] = element;
+            head = slot(1);
+        } else {
+            items[slot(size)] = element;
+            size++;
+        }
+        modCount++;
+        return true;
+    }
+
+    public E get(int index) {
+        rangeCheck(index);
+        return item(slot(index));
+    }
+
+    public E set(int index, E element) {
+        rangeCheck(index);
+        int i = slot(index);
+        E value = item(i);
+        items[i] = element;
+        return value;
+    }
+
+    public E remove(int index) {
+        rangeCheck(index);
+        E value = item(slot(index));
+        if (index < size - 1 - index) {
+            // 前半部分后移
+            for (int i = index; i > 0; i--)
+                items[slot(i)] = items[slot(i - 1)];
+            items[head] = null;
+            head = slot(1);
+        } else {
+            // 后半部分前移
+            for (int i = index; i < size - 1; i++)
+                items[slot(i)] = items[slot(i + 1)];
+            items[slot(size - 1)] = null;
+        }
+        size--;
+        modCount++;
+        return value;
+    }
+
+    /**
+     * 取出最早的元素
+     * @return 返回最早的元素，为空时返回 null。
+     */
+    public E poll() {
+        return size == 0 ? null : remove(0);
+    }
+
+    public E getFirst() {
+        if (size == 0)
+            throw new NoSuchElementException();
+        return item(head);
+    }
+
+    public E getLast() {
+        if (size == 0)
+            throw new NoSuchElementException();
+        return item(slot(size - 1));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return items.length;
+    }
+
+    public boolean isFull() {
+        return size == items.length;
+    }
+
+    public void clear() {
+        for (int i = 0; i < size; i++)
+            items[slot(i)] = null;
+        head = 0;
+        size = 0;
+        modCount++;
+    }
+
+    public Object[] toArray() {
+        Object[] values = new Object[size];
+        int first = Math.min(size, items.length - head);
+        System.arraycopy(items, head, values, 0, first);
+        System.arraycopy(items, 0, values, first, size - first);
+        return values;
+    }
+
+    public void forEach(Consumer<? super E> action) {
+        Objects.requireNonNull(action);
+        int expectedModCount = modCount;
+        for (int i = 0; i < size; i++)
+            action.accept(item(slot(i)));
+        if (modCount != expectedModCount)
+            throw new ConcurrentModificationException();
+    }
+}
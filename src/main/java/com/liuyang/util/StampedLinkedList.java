@@ -0,0 +1,445 @@
+package com.liuyang.util;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+
+/**
+ * 读写协调链表
+ * <p>
+ *     使用 {@link StampedLock} 协调读写的双向链表，适用于多个线程频繁读取、偶尔有线程修改的场景。
+ *     读取时先以乐观读方式访问，不加锁也不阻塞其他线程，读取后校验期间没有发生写入；
+ *     校验失败时改为获取读锁重新读取。读锁之间互不阻塞，写入时获取写锁。
+ * </p>
+ * <p>
+ *     {@link #iterator()} 返回创建时的快照，遍历期间不受修改影响，迭代器不支持删除。
+ *     {@link #forEach(Consumer)} 在读锁中执行，看到的是一致的链表内容，执行期间写入线程等待。
+ * </p>
+ * @param <E>
+ *
+ * @author liuyang
+ * @version 1.0.1
+ */
+public class StampedLinkedList<E> extends AbstractList<E> {
+    private final StampedLock lock = new StampedLock();
+    private Node<E>           head;
+    private Node<E>           tail;
+    private int               size;
+
+    /**
+     * 创建读写协调链表
+     */
+    public StampedLinkedList() {
+    }
+
+    /**
+     * 创建读写协调链表，并按顺序添加指定集合中的元素。
+     * @param collection 指定集合
+     */
+    public StampedLinkedList(Collection<? extends E> collection) {
+        addAll(collection);
+    }
+
+    //==================================================================================================================
+    // 链表核心功能，写入方法在写锁中调用
+    //==================================================================================================================
+
+    // 可用索引范围检查
+    private void rangeCheck(int index, int size) {
+        if (index >= size || index < 0)
+            throw new IndexOutOfBoundsException("Range out of 0 - " + size + " (" + index + ")");
+    }
+
+    // 在指定节点前面插入。指定节点为 null 时插入到末尾。
+    private void linkBefore(Node<E> succ, E element) {
+        Node<E> pred = succ == null ? tail : succ.prev;
+        Node<E> node = new Node<>(pred, element, succ);
+        if (pred == null)
+            head = node;
+        else
+            pred.next = node;
+        if (succ == null)
+            tail = node;
+        else
+            succ.prev = node;
+        size++;
+        modCount++;
+    }
+
+    private E unlink(Node<E> node) {
+        Node<E> pred = node.prev, succ = node.next;
+        if (pred == null)
+            head = succ;
+        else
+            pred.next = succ;
+        if (succ == null)
+            tail = pred;
+        else
+            succ.prev = pred;
+        size--;
+        modCount++;
+        return node.item;
+    }
+
+    // 从较近的一端查找节点。乐观读期间链表可能被修改，遇到 null 时返回 null，步数不超过读取到的长度。
+    private Node<E> search(int index, int count) {
+        Node<E> node;
+        if (index < count >> 1) {
+            node = head;
+            for (int i = 0; i < index && node != null; i++)
+                node = node.next;
+        } else {
+            node = tail;
+            for (int i = count - 1; i > index && node != null; i--)
+                node = node.prev;
+        }
+        return node;
+    }
+
+    // 查找元素的索引，最多访问指定数量的节点。
+    private int search(Object o, int count) {
+        Node<E> node = head;
+        for (int i = 0; i < count && node != null; i++, node = node.next)
+            if (Objects.equals(o, node.item))
+                return i;
+        return -1;
+    }
+
+    // 复制全部元素，最多访问指定数量的节点。节点不足时返回 null。
+    private Object[] copy(int count) {
+        Object[] values = new Object[count];
+        Node<E> node = head;
+        for (int i = 0; i < count; i++, node = node.next) {
+            if (node == null)
+                return null;
+            values[i] = node.item;
+        }
+        return values;
+    }
+
+    //==================================================================================================================
+    // 读取，先乐观读，校验失败时获取读锁
+    //==================================================================================================================
+
+    public E get(int index) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0L) {
+            int count = size;
+            Node<E> node = index >= 0 && index < count ? search(index, count) : null;
+            E item = node == null ? null : node.item;
+            if (lock.validate(stamp)) {
+                rangeCheck(index, count);
+                if (node != null)
+                    return item;
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            rangeCheck(index, size);
+            return search(index, size).item;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public E getFirst() {
+        return getEnd(true);
+    }
+
+    public E getLast() {
+        return getEnd(false);
+    }
+
+    private E getEnd(boolean first) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0L) {
+            Node<E> node = first ? head : tail;
+            E item = node == null ? null : node.item;
+            if (lock.validate(stamp)) {
+                if (node == null)
+                    throw new NoSuchElementException();
+                return item;
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            Node<E> node = first ? head : tail;
+            if (node == null)
+                throw new NoSuchElementException();
+            return node.item;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public int size() {
+        long stamp = lock.tryOptimisticRead();
+        int count = size;
+        if (lock.validate(stamp))
+            return count;
+        stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public int indexOf(Object o) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0L) {
+            int index = search(o, size);
+            if (lock.validate(stamp))
+                return index;
+        }
+        stamp = lock.readLock();
+        try {
+            return search(o, size);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public int lastIndexOf(Object o) {
+        long stamp = lock.readLock();
+        try {
+            Node<E> node = tail;
+            for (int i = size - 1; i >= 0; i--, node = node.prev)
+                if (Objects.equals(o, node.item))
+                    return i;
+            return -1;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public boolean contains(Object o) {
+        return indexOf(o) >= 0;
+    }
+
+    public Object[] toArray() {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0L) {
+            Object[] values = copy(size);
+            if (values != null && lock.validate(stamp))
+                return values;
+        }
+        stamp = lock.readLock();
+        try {
+            return copy(size);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @SuppressWarnings({"unchecked"})
+    public <T> T[] toArray(T[] a) {
+        Object[] values = toArray();
+        if (a.length < values.length)
+            return (T[]) Arrays.copyOf(values, values.length, a.getClass());
+        System.arraycopy(values, 0, a, 0, values.length);
+        if (a.length > values.length)
+            a[values.length] = null;
+        return a;
+    }
+
+    /**
+     * 在读锁中按顺序对每个元素执行指定操作。执行期间写入线程等待，因此操作应尽量简短。
+     * @param action 指定操作
+     */
+    public void forEach(Consumer<? super E> action) {
+        Objects.requireNonNull(action);
+        long stamp = lock.readLock();
+        try {
+            for (Node<E> node = head; node != null; node = node.next)
+                action.accept(node.item);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * 返回快照迭代器，遍历创建时的元素，不支持删除。
+     * @return 返回迭代器。
+     */
+    public Iterator<E> iterator() {
+        return new SnapshotItr<>(toArray());
+    }
+
+    //==================================================================================================================
+    // 写入，在写锁中执行
+    //==================================================================================================================
+
+    public boolean add(E element) {
+        long stamp = lock.writeLock();
+        try {
+            linkBefore(null, element);
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void add(int index, E element) {
+        long stamp = lock.writeLock();
+        try {
+            if (index != size)
+                rangeCheck(index, size);
+            linkBefore(index == size ? null : search(index, size), element);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public boolean addAll(Collection<? extends E> collection) {
+        Object[] values = collection.toArray();
+        if (values.length == 0)
+            return false;
+        long stamp = lock.writeLock();
+        try {
+            for (Object value : values) {
+                @SuppressWarnings({"unchecked"})
+                E element = (E) value;
+                linkBefore(null, element);
+            }
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void addFirst(E element) {
+        long stamp = lock.writeLock();
+        try {
+            linkBefore(head, element);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void addLast(E element) {
+        add(element);
+    }
+
+    public E set(int index, E element) {
+        long stamp = lock.writeLock();
+        try {
+            rangeCheck(index, size);
+            Node<E> node = search(index, size);
+            E value = node.item;
+            node.item = element;
+            return value;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public E remove(int index) {
+        long stamp = lock.writeLock();
+        try {
+            rangeCheck(index, size);
+            return unlink(search(index, size));
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public boolean remove(Object o) {
+        long stamp = lock.writeLock();
+        try {
+            for (Node<E> node = head; node != null; node = node.next) {
+                if (Objects.equals(o, node.item)) {
+                    unlink(node);
+                    return true;
+                }
+            }
+            return false;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public E removeFirst() {
+        long stamp = lock.writeLock();
+        try {
+            if (head == null)
+                throw new NoSuchElementException();
+            return unlink(head);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public E removeLast() {
+        long stamp = lock.writeLock();
+        try {
+            if (tail == null)
+                throw new NoSuchElementException();
+            return unlink(tail);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void clear() {
+        long stamp = lock.writeLock();
+        try {
+            head = tail = null;
+            size = 0;
+            modCount++;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    //==================================================================================================================
+    // 链表内部接口实现
+    //==================================================================================================================
+
+    /**
+     * 双向节点。字段的可见性由 {@link StampedLock} 保证。
+     */
+    private final static class Node<E> {
+        Node<E> prev;
+        Node<E> next;
+        E       item;
+
+        Node(Node<E> prev, E item, Node<E> next) {
+            this.prev = prev;
+            this.item = item;
+            this.next = next;
+        }
+    }
+
+    /**
+     * 快照迭代器
+     */
+    private final static class SnapshotItr<E> implements Iterator<E> {
+        final Object[] values;
+        int            cursor;
+
+        SnapshotItr(Object[] values) {
+            this.values = values;
+        }
+
+        public boolean hasNext() {
+            return cursor < values.length;
+        }
+
+        @SuppressWarnings({"unchecked"})
+        public E next() {
+            if (cursor >= values.length)
+                throw new NoSuchElementException();
+            return (E) values[cursor++];
+        }
+    }
+}
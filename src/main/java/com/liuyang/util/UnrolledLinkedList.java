@@ -0,0 +1,363 @@
+package com.liuyang.util;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * 分块链表
+ * <p>
+ *     每个节点保存一个小数组（块），而不是单个元素。遍历时在块内按数组顺序访问，只在块之间跳转，
+ *     每个元素的内存开销约为一个引用，远小于 {@link LinkedList} 每个元素一个节点对象的开销。
+ * </p>
+ * <p>
+ *     在块中间插入时，如果块已满则拆分为两个半满的块；删除后如果块与相邻块的元素总数不超过块容量，则合并。
+ *     按索引访问时从距离最近的一端或最近一次访问的块开始按块查找，顺序访问每次只需移动很少的块。
+ * </p>
+ * <p>
+ *     非线程安全。
+ * </p>
+ * @param <E>
+ *
+ * @author liuyang
+ * @version 1.0.1
+ */
+public class UnrolledLinkedList<E> extends AbstractList<E> {
+    /** 默认块容量 */
+    public final static int DEFAULT_CHUNK_CAPACITY = 32;
+
+    private final int   chunkCapacity;
+    private Chunk<E>    head;
+    private Chunk<E>    tail;
+    private int         size;
+    /** 最近一次按索引访问的块及该块第一个元素的索引，操作记录数改变后失效。 */
+    private Chunk<E>    fingerChunk;
+    private int         fingerStart;
+    private int         fingerModCount = -1;
+
+    /**
+     * 创建分块链表，块容量为 {@link #DEFAULT_CHUNK_CAPACITY}。
+     */
+    public UnrolledLinkedList() {
+        this(DEFAULT_CHUNK_CAPACITY);
+    }
+
+    /**
+     * 创建分块链表
+     * @param chunkCapacity 块容量，不能小于 2。
+     */
+    public UnrolledLinkedList(int chunkCapacity) {
+        if (chunkCapacity < 2)
+            throw new IllegalArgumentException("Illegal chunk capacity: " + chunkCapacity);
+        this.chunkCapacity = chunkCapacity;
+    }
+
+    /**
+     * 创建分块链表，并按顺序添加指定集合中的元素。
+     * @param collection 指定集合
+     */
+    public UnrolledLinkedList(Collection<? extends E> collection) {
+        this(DEFAULT_CHUNK_CAPACITY);
+        addAll(collection);
+    }
+
+    //==================================================================================================================
+    // 链表核心功能
+    //==================================================================================================================
+
+    // 可用索引范围检查
+    private void rangeCheck(int index) {
+        if (index >= size || index < 0)
+            throw new IndexOutOfBoundsException("Range out of 0 - " + size + " (" + index + ")");
+    }
+
+    // 插入位置范围检查，允许在末尾位置插入。
+    private void positionCheck(int index) {
+        if (index > size || index < 0)
+            throw new IndexOutOfBoundsException("Range out of 0 - " + size + " (" + index + ")");
+    }
+
+    // 查找包含指定索引的块，块的第一个元素的索引保存在 fingerStart 中。
+    private Chunk<E> search(int index) {
+        Chunk<E> chunk;
+        int start;
+        if (index < size - index) {
+            chunk = head;
+            start = 0;
+        } else {
+            chunk = tail;
+            start = size - tail.count;
+        }
+        if (fingerModCount == modCount && Math.abs(fingerStart - index) < Math.abs(start - index)) {
+            chunk = fingerChunk;
+            start = fingerStart;
+        }
+        while (index < start) {
+            chunk = chunk.prev;
+            start -= chunk.count;
+        }
+        while (index >= start + chunk.count) {
+            start += chunk.count;
+            chunk = chunk.next;
+        }
+        fingerChunk    = chunk;
+        fingerStart    = start;
+        fingerModCount = modCount;
+        return chunk;
+    }
+
+    // 在指定块之后链接新块
+    private Chunk<E> linkAfter(Chunk<E> chunk) {
+        Chunk<E> created = new Chunk<>(chunkCapacity);
+        created.prev = chunk;
+        if (chunk == null) {
+            created.next = head;
+            head = created;
+        } else {
+            created.next = chunk.next;
+            chunk.next = created;
+        }
+        if (created.next == null)
+            tail = created;
+        else
+            created.next.prev = created;
+        return created;
+    }
+
+    private void unlink(Chunk<E> chunk) {
+        if (chunk.prev == null)
+            head = chunk.next;
+        else
+            chunk.prev.next = chunk.next;
+        if (chunk.next == null)
+            tail = chunk.prev;
+        else
+            chunk.next.prev = chunk.prev;
+    }
+
+    // 块元素过少时与相邻块合并
+    private void merge(Chunk<E> chunk) {
+        if (chunk.count == 0) {
+            unlink(chunk);
+            return;
+        }
+        if (chunk.count >= chunkCapacity >> 1)
+            return;
+        Chunk<E> next = chunk.next;
+        if (next != null && chunk.count + next.count <= chunkCapacity) {
+            System.arraycopy(next.items, 0, chunk.items, chunk.count, next.count);
+            chunk.count += next.count;
+            unlink(next);
+            return;
+        }
+        Chunk<E> prev = chunk.prev;
+        if (prev != null && prev.count + chunk.count <= chunkCapacity) {
+            System.arraycopy(chunk.items, 0, prev.items, prev.count, chunk.count);
+            prev.count += chunk.count;
+            unlink(chunk);
+        }
+    }
+
+    @SuppressWarnings({"unchecked"})
+    private static <E> E item(Chunk<E> chunk, int offset) {
+        return (E) chunk.items[offset];
+    }
+
+    //==================================================================================================================
+    // 链表接口功能
+    //==================================================================================================================
+
+    public boolean add(E element) {
+        Chunk<E> chunk = tail;
+        if (chunk == null || chunk.count == chunkCapacity)
+            chunk = linkAfter(tail);
+        chunk.items[chunk.count++] = element;
+        size++;
+        modCount++;
+        return true;
+    }
+
+    public void add(int index, E element) {
+        positionCheck(index);
+        if (index == size) {
+            add(element);
+            return;
+        }
+        Chunk<E> chunk = search(index);
+        int offset = index - fingerStart;
+        if (chunk.count == chunkCapacity) {
+            // 块已满时拆分，后一半移到新块中
+            Chunk<E> created = linkAfter(chunk);
+            int half = chunkCapacity >> 1;
+            System.arraycopy(chunk.items, half, created.items, 0, chunkCapacity - half);
+            Arrays.fill(chunk.items, half, chunkCapacity, null);
+            created.count = chunkCapacity - half;
+            chunk.count   = half;
+            if (offset > half) {
+                chunk   = created;
+                offset -= half;
+            }
+        }
+        System.arraycopy(chunk.items, offset, chunk.items, offset + 1, chunk.count - offset);
+        chunk.items[offset] = element;
+        chunk.count++;
+        size++;
+        modCount++;
+    }
+
+    public E get(int index) {
+        rangeCheck(index);
+        Chunk<E> chunk = search(index);
+        return item(chunk, index - fingerStart);
+    }
+
+    public E set(int index, E element) {
+        rangeCheck(index);
+        Chunk<E> chunk = search(index);
+        int offset = index - fingerStart;
+        E value = item(chunk, offset);
+        chunk.items[offset] = element;
+        return value;
+    }
+
+    public E remove(int index) {
+        rangeCheck(index);
+        Chunk<E> chunk = search(index);
+        int offset = index - fingerStart;
+        E value = item(chunk, offset);
+        System.arraycopy(chunk.items, offset + 1, chunk.items, offset, chunk.count - offset - 1);
+        chunk.items[--chunk.count] = null;
+        merge(chunk);
+        size--;
+        modCount++;
+        return value;
+    }
+
+    public void clear() {
+        head = tail = null;
+        size = 0;
+        modCount++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int indexOf(Object o) {
+        int start = 0;
+        for (Chunk<E> chunk = head; chunk != null; chunk = chunk.next) {
+            for (int i = 0; i < chunk.count; i++)
+                if (Objects.equals(o, chunk.items[i]))
+                    return start + i;
+            start += chunk.count;
+        }
+        return -1;
+    }
+
+    public int lastIndexOf(Object o) {
+        int start = size;
+        for (Chunk<E> chunk = tail; chunk != null; chunk = chunk.prev) {
+            start -= chunk.count;
+            for (int i = chunk.count - 1; i >= 0; i--)
+                if (Objects.equals(o, chunk.items[i]))
+                    return start + i;
+        }
+        return -1;
+    }
+
+    public boolean contains(Object o) {
+        return indexOf(o) >= 0;
+    }
+
+    public Object[] toArray() {
+        Object[] values = new Object[size];
+        int start = 0;
+        for (Chunk<E> chunk = head; chunk != null; chunk = chunk.next) {
+            System.arraycopy(chunk.items, 0, values, start, chunk.count);
+            start += chunk.count;
+        }
+        return values;
+    }
+
+    public void forEach(Consumer<? super E> action) {
+        Objects.requireNonNull(action);
+        int expectedModCount = modCount;
+        for (Chunk<E> chunk = head; chunk != null; chunk = chunk.next) {
+            for (int i = 0; i < chunk.count; i++)
+                action.accept(item(chunk, i));
+            if (modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+        }
+    }
+
+    public Iterator<E> iterator() {
+        return new Itr();
+    }
+
+    //==================================================================================================================
+    // 链表内部接口实现
+    //==================================================================================================================
+
+    /**
+     * 块节点
+     */
+    private final static class Chunk<E> {
+        final Object[] items;
+        int            count;
+        Chunk<E>       prev;
+        Chunk<E>       next;
+
+        Chunk(int capacity) {
+            this.items = new Object[capacity];
+        }
+    }
+
+    /**
+     * 迭代器，在块内按数组顺序访问。
+     */
+    private final class Itr implements Iterator<E> {
+        Chunk<E> chunk            = head;
+        int      offset           = 0;
+        int      cursor           = 0;
+        int      lastRet          = -1;
+        int      expectedModCount = modCount;
+
+        public boolean hasNext() {
+            return cursor < size;
+        }
+
+        public E next() {
+            if (modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+            if (cursor >= size)
+                throw new NoSuchElementException();
+            while (offset >= chunk.count) {
+                chunk  = chunk.next;
+                offset = 0;
+            }
+            lastRet = cursor++;
+            return item(chunk, offset++);
+        }
+
+        public void remove() {
+            if (lastRet < 0)
+                throw new IllegalStateException();
+            if (modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+            UnrolledLinkedList.this.remove(lastRet);
+            // 删除后块可能已合并，重新定位
+            cursor  = lastRet;
+            lastRet = -1;
+            if (cursor < size) {
+                chunk  = search(cursor);
+                offset = cursor - fingerStart;
+            }
+            expectedModCount = modCount;
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.liuyang.log;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 异步日志输出测试
+ * <p>
+ *     覆盖环形缓冲区的发布、消费顺序，以及关闭期间写出数与丢弃数的统计。
+ * </p>
+ *
+ * @author liuyang
+ * @version 1.0.1
+ */
+public class AsyncAppenderTest {
+
+    /**
+     * 记录收到的消息。只由后台线程调用，测试线程在 close 返回后读取。
+     */
+    private final static class RecordingAppender implements Appender {
+        final List<String>  messages = new ArrayList<>();
+        final CountDownLatch gate;
+        int                  flushes;
+        boolean              closed;
+
+        RecordingAppender(CountDownLatch gate) {
+            this.gate = gate;
+        }
+
+        public void append(LogEvent event) {
+            if (gate != null) {
+                try {
+                    gate.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            messages.add(event.getFormattedMessage());
+        }
+
+        public void flush() {
+            flushes++;
+        }
+
+        public void close() {
+            closed = true;
+        }
+    }
+
+    private static LogEvent event(Level level, Object p0, Object p1) {
+        LogEvent event = new LogEvent();
+        event.set(level, 0L, null, "test", null, "{}:{}");
+        event.setParams(p0, p1);
+        return event;
+    }
+
+    //==================================================================================================================
+    // 发布与消费顺序
+    //==================================================================================================================
+
+    @Test
+    public void singleProducerOrder() {
+        RecordingAppender target = new RecordingAppender(null);
+        // 缓冲区远小于事件数，序号会多次回绕
+        AsyncAppender appender = new AsyncAppender(target, 16, AsyncAppender.Policy.BLOCK);
+        int count = 100000;
+        for (int i = 0; i < count; i++)
+            appender.append(event(Level.INFO, 0, i));
+        appender.close();
+
+        assertTrue(target.closed);
+        assertTrue(target.flushes > 0);
+        assertEquals(0L, appender.getDroppedCount());
+        assertEquals(0, appender.getQueueSize());
+        assertEquals(count, target.messages.size());
+        for (int i = 0; i < count; i++)
+            assertEquals("0:" + i, target.messages.get(i));
+    }
+
+    @Test
+    public void multiProducerOrder() throws InterruptedException {
+        RecordingAppender target = new RecordingAppender(null);
+        AsyncAppender appender = new AsyncAppender(target, 64, AsyncAppender.Policy.BLOCK);
+        int producers = 4, count = 50000;
+        Thread[] threads = new Thread[producers];
+        for (int p = 0; p < producers; p++) {
+            final int id = p;
+            threads[p] = new Thread(() -> {
+                for (int i = 0; i < count; i++)
+                    appender.append(event(Level.INFO, id, i));
+            });
+            threads[p].start();
+        }
+        for (Thread thread : threads)
+            thread.join();
+        appender.close();
+
+        // 同一生产者的事件按发布顺序写出
+        assertEquals(0L, appender.getDroppedCount());
+        assertEquals(producers * count, target.messages.size());
+        int[] next = new int[producers];
+        for (String message : target.messages) {
+            int split = message.indexOf(':');
+            int id = Integer.parseInt(message.substring(0, split));
+            assertEquals(next[id]++, Integer.parseInt(message.substring(split + 1)));
+        }
+        for (int p = 0; p < producers; p++)
+            assertEquals(count, next[p]);
+    }
+
+    //==================================================================================================================
+    // 丢弃统计
+    //==================================================================================================================
+
+    @Test
+    public void dropWhenFull() {
+        CountDownLatch gate = new CountDownLatch(1);
+        RecordingAppender target = new RecordingAppender(gate);
+        AsyncAppender appender = new AsyncAppender(target, 4, AsyncAppender.Policy.DROP);
+        // 后台线程阻塞在第一个事件上，缓冲区最多容纳 4 个事件
+        int count = 100;
+        for (int i = 0; i < count; i++)
+            appender.append(event(Level.INFO, 0, i));
+        assertTrue(appender.getDroppedCount() >= count - 4);
+        gate.countDown();
+        appender.close();
+
+        assertEquals(count, target.messages.size() + appender.getDroppedCount());
+        for (int i = 0; i < 4; i++)
+            assertEquals("0:" + i, target.messages.get(i));
+    }
+
+    @Test
+    public void dropDebugWhenFull() {
+        CountDownLatch gate = new CountDownLatch(1);
+        RecordingAppender target = new RecordingAppender(gate);
+        AsyncAppender appender = new AsyncAppender(target, 4, AsyncAppender.Policy.DROP_DEBUG);
+        for (int i = 0; i < 10; i++)
+            appender.append(event(Level.DEBUG, 0, i));
+        assertTrue(appender.getDroppedCount() >= 6);
+        long dropped = appender.getDroppedCount();
+        gate.countDown();
+        // 其他级别等待空闲槽位，不会丢弃
+        for (int i = 0; i < 10; i++)
+            appender.append(event(Level.INFO, 1, i));
+        appender.close();
+
+        assertEquals(dropped, appender.getDroppedCount());
+        assertEquals(20, target.messages.size() + dropped);
+    }
+
+    @Test
+    public void closeAccountsForEveryEvent() throws InterruptedException {
+        for (int round = 0; round < 20; round++) {
+            RecordingAppender target = new RecordingAppender(null);
+            AsyncAppender appender = new AsyncAppender(target, 32, AsyncAppender.Policy.BLOCK);
+            int producers = 3;
+            AtomicLong attempts = new AtomicLong();
+            CountDownLatch started = new CountDownLatch(producers);
+            Thread[] threads = new Thread[producers];
+            for (int p = 0; p < producers; p++) {
+                final int id = p;
+                threads[p] = new Thread(() -> {
+                    started.countDown();
+                    for (int i = 0; i < 20000; i++) {
+                        appender.append(event(Level.INFO, id, i));
+                        attempts.incrementAndGet();
+                    }
+                });
+                threads[p].start();
+            }
+            started.await();
+            // 生产者仍在发布时关闭
+            appender.close();
+            for (Thread thread : threads)
+                thread.join();
+
+            // 关闭后写出的事件不再变化，每个事件要么写出要么计入丢弃
+            assertEquals(attempts.get(), target.messages.size() + appender.getDroppedCount());
+            assertEquals(0, appender.getQueueSize());
+        }
+    }
+
+    @Test
+    public void appendAfterClose() {
+        RecordingAppender target = new RecordingAppender(null);
+        AsyncAppender appender = new AsyncAppender(target, 8, AsyncAppender.Policy.BLOCK);
+        appender.append(event(Level.INFO, 0, 0));
+        appender.close();
+        appender.append(event(Level.INFO, 0, 1));
+        appender.close();
+
+        assertEquals(1, target.messages.size());
+        assertEquals(1L, appender.getDroppedCount());
+    }
+}
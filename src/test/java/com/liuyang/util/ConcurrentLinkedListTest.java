@@ -0,0 +1,221 @@
+package com.liuyang.util;
+
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 无锁并发链表测试
+ * <p>
+ *     单线程下与 {@link ArrayDeque} 对比两端操作的结果；多线程下两端同时添加、取出，
+ *     校验每个元素恰好被取出一次。
+ * </p>
+ *
+ * @author liuyang
+ * @version 1.0.1
+ */
+public class ConcurrentLinkedListTest {
+
+    //==================================================================================================================
+    // 单线程
+    //==================================================================================================================
+
+    @Test
+    public void emptyList() {
+        ConcurrentLinkedList<Integer> list = new ConcurrentLinkedList<>();
+        assertTrue(list.isEmpty());
+        assertEquals(0, list.size());
+        assertNull(list.pollFirst());
+        assertNull(list.pollLast());
+        assertNull(list.peekFirst());
+        assertNull(list.peekLast());
+        try {
+            list.removeFirst();
+            fail();
+        } catch (NoSuchElementException e) {
+            // 预期
+        }
+        try {
+            list.addLast(null);
+            fail();
+        } catch (NullPointerException e) {
+            // 预期
+        }
+    }
+
+    @Test
+    public void randomOpsMatchArrayDeque() {
+        Random random = new Random(12);
+        ConcurrentLinkedList<Integer> list = new ConcurrentLinkedList<>();
+        ArrayDeque<Integer> expected = new ArrayDeque<>();
+        for (int i = 0; i < 20000; i++) {
+            int value = random.nextInt(100);
+            switch (random.nextInt(7)) {
+                case 0: list.addFirst(value); expected.addFirst(value); break;
+                case 1: list.addLast(value); expected.addLast(value); break;
+                case 2: assertEquals(expected.pollFirst(), list.pollFirst()); break;
+                case 3: assertEquals(expected.pollLast(), list.pollLast()); break;
+                case 4: assertEquals(expected.peekFirst(), list.peekFirst()); break;
+                case 5: assertEquals(expected.peekLast(), list.peekLast()); break;
+                default:
+                    // 中间删除只做逻辑删除，之后的两端操作需要跳过已删除节点
+                    assertEquals(expected.remove(value), list.remove(value));
+                    break;
+            }
+            if (i % 100 == 0) {
+                assertEquals(expected.size(), list.size());
+                assertEquals(new ArrayList<>(expected), toList(list.iterator()));
+                assertEquals(expected.contains(value), list.contains(value));
+            }
+        }
+        List<Integer> reversed = new ArrayList<>();
+        expected.descendingIterator().forEachRemaining(reversed::add);
+        assertEquals(reversed, toList(list.descendingIterator()));
+    }
+
+    private static List<Integer> toList(Iterator<Integer> iterator) {
+        List<Integer> values = new ArrayList<>();
+        iterator.forEachRemaining(values::add);
+        return values;
+    }
+
+    //==================================================================================================================
+    // 多线程
+    //==================================================================================================================
+
+    @Test
+    public void concurrentAddPoll() throws InterruptedException {
+        final int producers = 4, consumers = 4, count = 50000;
+        final int total = producers * count;
+        ConcurrentLinkedList<Integer> list = new ConcurrentLinkedList<>();
+        AtomicIntegerArray seen = new AtomicIntegerArray(total);
+        AtomicLong polled = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            final int base = p * count;
+            final boolean first = (p & 1) == 0;
+            threads.add(new Thread(() -> {
+                await(start);
+                for (int i = 0; i < count; i++) {
+                    if (first)
+                        list.addFirst(base + i);
+                    else
+                        list.addLast(base + i);
+                }
+            }));
+        }
+        for (int c = 0; c < consumers; c++) {
+            final boolean first = (c & 1) == 0;
+            threads.add(new Thread(() -> {
+                await(start);
+                while (polled.get() < total) {
+                    Integer value = first ? list.pollFirst() : list.pollLast();
+                    if (value == null) {
+                        Thread.yield();
+                        continue;
+                    }
+                    seen.incrementAndGet(value);
+                    polled.incrementAndGet();
+                }
+            }));
+        }
+        for (Thread thread : threads)
+            thread.start();
+        start.countDown();
+        for (Thread thread : threads)
+            thread.join();
+
+        assertEquals(total, polled.get());
+        for (int i = 0; i < total; i++)
+            assertEquals("element " + i, 1, seen.get(i));
+        assertTrue(list.isEmpty());
+        assertNull(list.pollFirst());
+    }
+
+    @Test
+    public void concurrentFifoPerProducer() throws InterruptedException {
+        final int producers = 3, count = 50000;
+        ConcurrentLinkedList<Long> list = new ConcurrentLinkedList<>();
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[producers];
+        for (int p = 0; p < producers; p++) {
+            final long id = p;
+            threads[p] = new Thread(() -> {
+                await(start);
+                for (int i = 0; i < count; i++)
+                    list.addLast(id << 32 | i);
+            });
+            threads[p].start();
+        }
+        start.countDown();
+        // 单个消费者从头部取出，同一生产者的元素保持添加顺序
+        int[] next = new int[producers];
+        int received = 0;
+        while (received < producers * count) {
+            Long value = list.pollFirst();
+            if (value == null) {
+                Thread.yield();
+                continue;
+            }
+            int id = (int) (value >>> 32);
+            assertEquals(next[id]++, (int) (long) value);
+            received++;
+        }
+        for (Thread thread : threads)
+            thread.join();
+        assertTrue(list.isEmpty());
+    }
+
+    @Test
+    public void concurrentRemoveObject() throws InterruptedException {
+        final int count = 20000;
+        ConcurrentLinkedList<Integer> list = new ConcurrentLinkedList<>();
+        for (int i = 0; i < count; i++)
+            list.addLast(i);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicLong removed = new AtomicLong();
+        // 一个线程删除偶数，另一个线程从头部取出，每个元素只能被其中一方拿到
+        Thread remover = new Thread(() -> {
+            await(start);
+            for (int i = 0; i < count; i += 2)
+                if (list.remove(i))
+                    removed.incrementAndGet();
+        });
+        List<Integer> polled = new ArrayList<>();
+        remover.start();
+        start.countDown();
+        for (Integer value; (value = list.pollFirst()) != null; )
+            polled.add(value);
+        remover.join();
+        for (Integer value; (value = list.pollFirst()) != null; )
+            polled.add(value);
+
+        assertEquals(count, polled.size() + removed.get());
+        assertEquals(polled.size(), polled.stream().distinct().count());
+        // 奇数不会被删除，必须全部取出
+        assertEquals(count / 2, polled.stream().filter(value -> value % 2 != 0).count());
+        assertTrue(list.isEmpty());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.liuyang.util;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * 索引跳表测试
+ * <p>
+ *     随机执行插入、删除、修改、读取，每一步与 {@link ArrayList} 的结果对比，并定期对比全部内容。
+ * </p>
+ *
+ * @author liuyang
+ * @version 1.0.1
+ */
+public class IndexedSkipListTest {
+
+    @Test
+    public void randomOpsMatchArrayList() {
+        for (long seed = 1; seed <= 20; seed++)
+            randomOps(new Random(seed), 5000);
+    }
+
+    @Test
+    public void largeRandomOpsMatchArrayList() {
+        randomOps(new Random(16), 200000);
+    }
+
+    private static void randomOps(Random random, int steps) {
+        IndexedSkipList<Integer> list = new IndexedSkipList<>();
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < steps; i++) {
+            int size = expected.size();
+            int value = random.nextInt(1000);
+            int op = random.nextInt(10);
+            if (op < 3) {
+                list.add(value);
+                expected.add(value);
+            } else if (op < 5) {
+                int index = random.nextInt(size + 1);
+                list.add(index, value);
+                expected.add(index, value);
+            } else if (op < 7 && size > 0) {
+                int index = random.nextInt(size);
+                assertEquals(expected.remove(index), list.remove(index));
+            } else if (op < 8 && size > 0) {
+                int index = random.nextInt(size);
+                assertEquals(expected.set(index, value), list.set(index, value));
+            } else if (op < 9 && size > 0) {
+                int index = random.nextInt(size);
+                assertEquals(expected.get(index), list.get(index));
+            } else {
+                assertEquals(expected.indexOf(value), list.indexOf(value));
+                assertEquals(expected.contains(value), list.contains(value));
+            }
+            assertEquals(expected.size(), list.size());
+            if (i % 500 == 0)
+                assertEquals(expected, list);
+        }
+        assertEquals(expected, list);
+        List<Integer> values = new ArrayList<>();
+        list.forEach(values::add);
+        assertEquals(expected, values);
+    }
+
+    @Test
+    public void iteratorRemoveMatchesArrayList() {
+        Random random = new Random(7);
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 10000; i++)
+            expected.add(random.nextInt(100));
+        IndexedSkipList<Integer> list = new IndexedSkipList<>(expected);
+        Iterator<Integer> actualItr = list.iterator();
+        Iterator<Integer> expectedItr = expected.iterator();
+        while (expectedItr.hasNext()) {
+            assertEquals(expectedItr.next(), actualItr.next());
+            if (random.nextInt(3) == 0) {
+                expectedItr.remove();
+                actualItr.remove();
+            }
+        }
+        assertEquals(expected, list);
+    }
+
+    @Test
+    public void outOfRange() {
+        IndexedSkipList<Integer> list = new IndexedSkipList<>();
+        list.add(1);
+        for (int index : new int[]{-1, 1}) {
+            try {
+                list.get(index);
+                fail();
+            } catch (IndexOutOfBoundsException e) {
+                // 预期
+            }
+        }
+        try {
+            list.add(2, 2);
+            fail();
+        } catch (IndexOutOfBoundsException e) {
+            // 预期
+        }
+    }
+
+    @Test(expected = ConcurrentModificationException.class)
+    public void iteratorFailFast() {
+        IndexedSkipList<Integer> list = new IndexedSkipList<>();
+        list.add(1);
+        list.add(2);
+        Iterator<Integer> iterator = list.iterator();
+        iterator.next();
+        list.add(3);
+        iterator.next();
+    }
+}
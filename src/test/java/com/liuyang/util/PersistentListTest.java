@@ -0,0 +1,160 @@
+package com.liuyang.util;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+/**
+ * 持久化列表测试
+ * <p>
+ *     随机执行两端添加、插入、删除、修改、连接和截取，每一步与 {@link ArrayList} 的结果对比；
+ *     同时保留旧版本，校验修改不影响之前的快照。
+ * </p>
+ *
+ * @author liuyang
+ * @version 1.0.1
+ */
+public class PersistentListTest {
+
+    @Test
+    public void randomOpsMatchArrayList() {
+        for (long seed = 1; seed <= 20; seed++)
+            randomOps(new Random(seed), 3000);
+    }
+
+    @Test
+    public void largeRandomOpsMatchArrayList() {
+        randomOps(new Random(22), 50000);
+    }
+
+    private static void randomOps(Random random, int steps) {
+        PersistentList<Integer> list = PersistentList.empty();
+        List<Integer> expected = new ArrayList<>();
+        // 旧版本及其内容，用于校验快照不变
+        List<PersistentList<Integer>> snapshots = new ArrayList<>();
+        List<List<Integer>> snapshotValues = new ArrayList<>();
+        for (int i = 0; i < steps; i++) {
+            int size = expected.size();
+            int value = random.nextInt(1000);
+            int op = random.nextInt(12);
+            if (op < 3) {
+                list = list.append(value);
+                expected.add(value);
+            } else if (op < 5) {
+                list = list.prepend(value);
+                expected.add(0, value);
+            } else if (op < 7) {
+                int index = random.nextInt(size + 1);
+                list = list.insert(index, value);
+                expected.add(index, value);
+            } else if (op < 8 && size > 0) {
+                int index = random.nextInt(size);
+                list = list.delete(index);
+                expected.remove(index);
+            } else if (op < 9 && size > 0) {
+                int index = random.nextInt(size);
+                list = list.update(index, value);
+                expected.set(index, value);
+            } else if (op < 10) {
+                // 与随机长度的列表或旧版本连接
+                List<Integer> other = new ArrayList<>();
+                PersistentList<Integer> tail;
+                if (!snapshots.isEmpty() && random.nextBoolean()) {
+                    int k = random.nextInt(snapshots.size());
+                    tail = snapshots.get(k);
+                    other.addAll(snapshotValues.get(k));
+                } else {
+                    for (int j = random.nextInt(80); j > 0; j--)
+                        other.add(random.nextInt(1000));
+                    tail = PersistentList.from(other);
+                }
+                if (expected.size() + other.size() > 20000)
+                    continue;
+                list = list.concat(tail);
+                expected.addAll(other);
+            } else if (op < 11 && size > 0) {
+                int from = random.nextInt(size + 1);
+                int to = from + random.nextInt(size - from + 1);
+                // 截取范围较小时保留大部分元素，避免列表持续变短
+                if (to - from < size / 2)
+                    continue;
+                list = list.subList(from, to);
+                expected = new ArrayList<>(expected.subList(from, to));
+            } else if (size > 0) {
+                int index = random.nextInt(size);
+                assertEquals(expected.get(index), list.get(index));
+            }
+            assertEquals(expected.size(), list.size());
+            if (i % 100 == 0) {
+                assertEquals(expected, list);
+                snapshots.add(list);
+                snapshotValues.add(new ArrayList<>(expected));
+            }
+        }
+        assertEquals(expected, list);
+        assertEquals(expected, new ArrayList<>(Arrays.asList(list.toArray())));
+        List<Integer> values = new ArrayList<>();
+        list.forEach(values::add);
+        assertEquals(expected, values);
+        for (int k = 0; k < snapshots.size(); k++)
+            assertEquals(snapshotValues.get(k), snapshots.get(k));
+    }
+
+    @Test
+    public void factories() {
+        assertEquals(Collections.emptyList(), PersistentList.empty());
+        assertEquals(Arrays.asList(1, 2, 3), PersistentList.of(1, 2, 3));
+        List<Integer> values = new ArrayList<>();
+        for (int i = 0; i < 1000; i++)
+            values.add(i);
+        PersistentList<Integer> list = PersistentList.from(values);
+        assertEquals(values, list);
+        assertSame(list, PersistentList.from(list));
+        assertSame(list, list.subList(0, list.size()));
+    }
+
+    @Test
+    public void listMutatorsUnsupported() {
+        PersistentList<Integer> list = PersistentList.of(1, 2, 3);
+        try {
+            list.add(4);
+            fail();
+        } catch (UnsupportedOperationException e) {
+            // 预期
+        }
+        try {
+            list.set(0, 4);
+            fail();
+        } catch (UnsupportedOperationException e) {
+            // 预期
+        }
+        assertEquals(Arrays.asList(1, 2, 3), list);
+    }
+
+    @Test
+    public void outOfRange() {
+        PersistentList<Integer> list = PersistentList.of(1);
+        for (int index : new int[]{-1, 1}) {
+            try {
+                list.get(index);
+                fail();
+            } catch (IndexOutOfBoundsException e) {
+                // 预期
+            }
+        }
+        try {
+            list.insert(2, 2);
+            fail();
+        } catch (IndexOutOfBoundsException e) {
+            // 预期
+        }
+    }
+}